@@ -0,0 +1,91 @@
+package dev.gabriel.springboot2.jmh;
+
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import dev.gabriel.springboot2.service.AnimeBatchService;
+import dev.gabriel.springboot2.service.AnimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Cadastro um a um (um INSERT e uma transação por anime) contra o POST /animes/batch, em animes gravados por segundo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeBatchInsertBenchmark {
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private AnimeService animeService;
+    private AnimeBatchService animeBatchService;
+    private AnimeRepository animeRepository;
+    private List<AnimePostRequestBody> animes;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-batch;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                // Cada escrita agendaria a reconstrução da cópia de /animes/all no meio da medição
+                "--anime.catalog-snapshot.enabled=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        animeService = context.getBean(AnimeService.class);
+        animeBatchService = context.getBean(AnimeBatchService.class);
+        animeRepository = context.getBean(AnimeRepository.class);
+        animes = IntStream.range(0, ROWS)
+                .mapToObj(i -> new AnimePostRequestBody("Anime " + i))
+                .collect(Collectors.toList());
+    }
+
+    // A tabela não cresce de uma iteração para a outra
+    @TearDown(Level.Iteration)
+    public void deleteAnimes() {
+        animeRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long singleInserts() {
+        long lastId = 0;
+        for (AnimePostRequestBody anime : animes) lastId = animeService.save(anime).getId();
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public AnimeBatchResponse batchInsert() {
+        return animeBatchService.saveAll(animes);
+    }
+}
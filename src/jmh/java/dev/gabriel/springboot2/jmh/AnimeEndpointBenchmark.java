@@ -0,0 +1,85 @@
+package dev.gabriel.springboot2.jmh;
+
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// GET /animes/{id} (encontrado e não encontrado) passando por toda a cadeia: filtros do Spring Security, DispatcherServlet,
+// controller, service, cache de segundo nível/H2 e serialização
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeEndpointBenchmark {
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private long id;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        // Argumentos de linha de comando têm prioridade sobre o application.yml
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+
+        id = context.getBean(AnimeRepository.class).save(Anime.builder().name("Naruto").build()).getId();
+
+        // Token em vez de basic, senão o bcrypt domina o tempo medido
+        authorization = "Bearer " + context.getBean(TokenService.class).issue(new UsernamePasswordAuthenticationToken(
+                "devdojo", null, AuthorityUtils.createAuthorityList("ROLE_USER"))).getAccessToken();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult findById() throws Exception {
+        return mockMvc.perform(get("/animes/{id}", id).header(HttpHeaders.AUTHORIZATION, authorization)).andReturn();
+    }
+
+    // Id inexistente: exceção, RestExceptionHandler e corpo de erro
+    @Benchmark
+    public MvcResult findByIdNotFound() throws Exception {
+        return mockMvc.perform(get("/animes/{id}", id + 1).header(HttpHeaders.AUTHORIZATION, authorization)).andReturn();
+    }
+}
@@ -0,0 +1,39 @@
+package dev.gabriel.springboot2.jmh;
+
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.mapper.AnimeMapper;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeMapperBenchmark {
+    // Campos não finais para o JIT não tratar as entradas como constantes
+    private AnimePostRequestBody animePostRequestBody = new AnimePostRequestBody("Naruto");
+    private AnimePutRequestBody animePutRequestBody = new AnimePutRequestBody(1L, "Naruto");
+
+    @Benchmark
+    public Anime toAnimeFromPostRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(animePostRequestBody);
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPutRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.gabriel.springboot2.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.exception.BadRequestExceptionDetails;
+import dev.gabriel.springboot2.handler.AnimeNotFoundResponseBody;
+import dev.gabriel.springboot2.handler.RestExceptionHandler;
+import dev.gabriel.springboot2.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Custo de uma busca por id inexistente, da exceção até os bytes da resposta, antes e depois do AnimeNotFoundException
+// A profundidade da pilha simula as camadas entre o controller e o Tomcat, que deixam o stack trace mais caro
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeNotFoundBenchmark {
+    @Param({"20", "120"})
+    private int stackDepth;
+
+    private ObjectMapper objectMapper;
+    private AnimeNotFoundResponseBody animeNotFoundResponseBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        animeNotFoundResponseBody = new AnimeNotFoundResponseBody(objectMapper, new DateUtil(Clock.systemDefaultZone()));
+    }
+
+    // Como era antes: exceção com stack trace, builder e serialização a cada resposta
+    @Benchmark
+    public byte[] badRequestException() throws JsonProcessingException {
+        try {
+            throwAt(stackDepth, () -> new BadRequestException(AnimeNotFoundException.MESSAGE));
+        } catch (BadRequestException e) {
+            return objectMapper.writeValueAsBytes(BadRequestExceptionDetails.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .title(RestExceptionHandler.BAD_REQUEST_TITLE)
+                    .details(e.getMessage())
+                    .developerMessage(e.getClass().getName())
+                    .build());
+        }
+        throw new IllegalStateException();
+    }
+
+    @Benchmark
+    public byte[] animeNotFoundException() {
+        try {
+            throwAt(stackDepth, AnimeNotFoundException::new);
+        } catch (BadRequestException e) {
+            return animeNotFoundResponseBody.get();
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void throwAt(int depth, Supplier<BadRequestException> exception) {
+        if (depth == 0) throw exception.get();
+        throwAt(depth - 1, exception);
+    }
+}
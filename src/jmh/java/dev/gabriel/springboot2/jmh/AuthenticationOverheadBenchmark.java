@@ -0,0 +1,89 @@
+package dev.gabriel.springboot2.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import dev.gabriel.springboot2.responses.TokenResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Custo por requisição da autenticação basic (bcrypt a cada chamada) contra o token assinado de /auth/token,
+// num endpoint barato (/animes/suggest, só o índice em memória) para a autenticação dominar o tempo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationOverheadBenchmark {
+    private static final String URL = "/animes/suggest?prefix=x";
+    private static final String BASIC = "Basic " + HttpHeaders.encodeBasicAuth("gabriel", "academy", StandardCharsets.UTF_8);
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String bearer;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-auth;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+
+        // O mesmo caminho do cliente: troca as credenciais basic por um token
+        String body = mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, BASIC))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        bearer = "Bearer " + context.getBean(ObjectMapper.class).readValue(body, TokenResponse.class).getAccessToken();
+
+        // Um 401 seria bem mais barato e mediria outra coisa
+        mockMvc.perform(get(URL).header(HttpHeaders.AUTHORIZATION, BASIC)).andExpect(status().isOk());
+        mockMvc.perform(get(URL).header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult basic() throws Exception {
+        return mockMvc.perform(get(URL).header(HttpHeaders.AUTHORIZATION, BASIC)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult bearer() throws Exception {
+        return mockMvc.perform(get(URL).header(HttpHeaders.AUTHORIZATION, bearer)).andReturn();
+    }
+}
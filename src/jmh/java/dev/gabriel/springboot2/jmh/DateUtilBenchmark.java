@@ -0,0 +1,57 @@
+package dev.gabriel.springboot2.jmh;
+
+import dev.gabriel.springboot2.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+// Para ver as alocações por chamada (gc.alloc.rate.norm):
+// mvn verify -Pjmh -DskipTests -Djmh.include=DateUtil -Djmh.args="-prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+    private DateUtil dateUtil = new DateUtil(Clock.systemDefaultZone());
+    private LocalDateTime localDateTime = LocalDateTime.of(2022, 1, 15, 10, 30, 45);
+
+    // Como era antes: um formatter novo a cada chamada
+    @Benchmark
+    public String formatWithNewFormatter() {
+        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(localDateTime);
+    }
+
+    @Benchmark
+    public String formatLocalDateTimeToDatabaseStyle() {
+        return dateUtil.formatLocalDateTimeToDatabaseStyle(localDateTime);
+    }
+
+    // Como era antes no RestExceptionHandler
+    @Benchmark
+    public LocalDateTime localDateTimeNow() {
+        return LocalDateTime.now();
+    }
+
+    @Benchmark
+    public LocalDateTime currentSecond() {
+        return dateUtil.currentSecond();
+    }
+
+    @Benchmark
+    public String currentSecondInDatabaseStyle() {
+        return dateUtil.currentSecondInDatabaseStyle();
+    }
+}
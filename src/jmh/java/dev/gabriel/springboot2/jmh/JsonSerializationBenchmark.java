@@ -0,0 +1,84 @@
+package dev.gabriel.springboot2.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestExceptionDetails;
+import dev.gabriel.springboot2.exception.ExceptionDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+// Serialização dos corpos de resposta mais comuns, com o ObjectMapper configurado como o do Spring Boot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private Anime anime;
+    private Page<Anime> page;
+    private ExceptionDetails exceptionDetails;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        anime = anime(1L, now);
+
+        List<Anime> animes = LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(id -> anime(id, now)).collect(Collectors.toList());
+        page = new PageImpl<>(animes, PageRequest.of(0, PAGE_SIZE), 1_000);
+
+        exceptionDetails = BadRequestExceptionDetails.builder()
+                .timestamp(now)
+                .status(400)
+                .title("Bad Request Exception, Check the Documentation")
+                .details("Anime not found!")
+                .developerMessage("dev.gabriel.springboot2.exception.BadRequestException")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] anime() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(anime);
+    }
+
+    @Benchmark
+    public byte[] pageOfAnimes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] exceptionDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(exceptionDetails);
+    }
+
+    private static Anime anime(long id, LocalDateTime updatedAt) {
+        return Anime.builder().id(id).name("Anime " + id).version(0L).updatedAt(updatedAt).build();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.gabriel.springboot2.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Uma página de animes lida do H2 e serializada: entidades gerenciadas em transação de escrita (como era antes)
+// contra a projeção AnimeView em transação readOnly. Rodar com -prof gc para ver os bytes alocados por página
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadProjectionBenchmark {
+    private static final int ANIMES = 5000;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private AnimeRepository animeRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-projection;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        animeRepository = context.getBean(AnimeRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Anime> animes = new ArrayList<>(ANIMES);
+        for (int i = 0; i < ANIMES; i++) animes.add(Anime.builder().name("Anime " + i).build());
+        animeRepository.saveAll(animes);
+
+        pageRequest = PageRequest.of(1, pageSize, Sort.by("name"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() {
+        return readWrite.execute(status -> serialize(animeRepository.findAll(pageRequest).getContent()));
+    }
+
+    @Benchmark
+    public byte[] projectionPage() {
+        return readOnly.execute(status -> serialize(animeRepository.findAllViews(pageRequest).getContent()));
+    }
+
+    // Serializa dentro da transação, como o open-in-view fazia com as entidades
+    private byte[] serialize(Object content) {
+        try {
+            return objectMapper.writeValueAsBytes(content);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
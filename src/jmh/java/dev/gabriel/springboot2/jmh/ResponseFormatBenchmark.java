@@ -0,0 +1,101 @@
+package dev.gabriel.springboot2.jmh;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.gabriel.springboot2.responses.AnimeView;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+// Tempo de serialização de cada formato aceito no Accept (JSON, Smile e CBOR)
+// O tamanho em bytes de cada corpo sai junto no resultado, na métrica secundária bytes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int LIST_SIZE = 500;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private Page<AnimeView> page;
+    private List<AnimeView> list;
+
+    // Guarda o tamanho do último corpo, não soma: o JMH zera o contador a cada iteração e mostra o valor dele
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class BodySize {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        page = new PageImpl<>(animes(PAGE_SIZE, now), PageRequest.of(0, PAGE_SIZE), 1_000);
+        list = animes(LIST_SIZE, now);
+    }
+
+    @Benchmark
+    public byte[] pageOfAnimes(BodySize size) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(page);
+        size.bytes = body.length;
+        return body;
+    }
+
+    @Benchmark
+    public byte[] listOfAnimes(BodySize size) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(list);
+        size.bytes = body.length;
+        return body;
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    private static List<AnimeView> animes(int size, LocalDateTime updatedAt) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new AnimeView(id, "Anime " + id, 0L, updatedAt))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,243 @@
+package dev.gabriel.springboot2.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.service.AnimeService;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+// Lista completa de GET /animes/all já serializada em JSON, normal e gzip, em arquivos mapeados em memória
+// Refeita em segundo plano depois das escritas, várias escritas seguidas geram uma única reconstrução
+// Quem lê nunca espera: recebe a cópia anterior até a nova ficar pronta e ser trocada de uma vez
+@Component
+@Log4j2
+public class AnimeCatalogSnapshot implements InitializingBean, DisposableBean {
+    private final AnimeService animeService;
+    private final AnimeCollectionVersion animeCollectionVersion;
+    private final ObjectMapper objectMapper;
+    private final AnimeProperties.CatalogSnapshot properties;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // Cópias trocadas que ainda podem estar sendo enviadas (sendfile), só usado pela thread de reconstrução
+    private final Deque<Snapshot> retired = new ArrayDeque<>();
+    private ScheduledExecutorService rebuilder;
+    private Path directory;
+    private long sequence;
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Snapshot {
+        private final String eTag;
+        private final long lastModified;
+        private final Body body;
+        // null quando o gzip não diminui o corpo
+        private final Body gzipBody;
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Body {
+        @Getter
+        private final Path path;
+        private final ByteBuffer buffer;
+
+        // Cada chamada devolve uma visão com posição própria, o conteúdo não é copiado
+        public ByteBuffer getBuffer() {
+            return buffer.duplicate();
+        }
+
+        public long length() {
+            return buffer.capacity();
+        }
+    }
+
+    public AnimeCatalogSnapshot(AnimeService animeService, AnimeCollectionVersion animeCollectionVersion,
+                                ObjectMapper objectMapper, AnimeProperties animeProperties) {
+        this.animeService = animeService;
+        this.animeCollectionVersion = animeCollectionVersion;
+        this.objectMapper = objectMapper;
+        this.properties = animeProperties.getCatalogSnapshot();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = Files.createTempDirectory("anime-catalog-");
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "anime-catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        rebuilder.shutdownNow();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    // Só depois do commit, a reconstrução precisa enxergar a escrita
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    // null enquanto a primeira cópia não fica pronta
+    public Snapshot current() {
+        return current.get();
+    }
+
+    void scheduleRebuild() {
+        if (!properties.isEnabled() || rebuilder.isShutdown()) return;
+        // Uma reconstrução agendada por vez, as escritas até ela começar entram nela
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Reconstrói pela thread de reconstrução e espera a nova cópia ficar pronta
+    public void rebuildNow() {
+        try {
+            rebuilder.submit(this::rebuild).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not rebuild the anime catalog snapshot", e.getCause());
+        }
+    }
+
+    // Só roda na thread de reconstrução, a única que mexe no sequence e nos arquivos aposentados
+    private void rebuild() {
+        // Liberado antes da consulta: uma escrita durante a reconstrução agenda a próxima
+        rebuildScheduled.set(false);
+        try {
+            Snapshot previous = current.getAndSet(build());
+            if (previous != null) retire(previous);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not rebuild the anime catalog snapshot, the previous one is still served", e);
+        }
+    }
+
+    private Snapshot build() throws IOException {
+        long start = System.currentTimeMillis();
+        // Lidos antes da consulta, como no AnimeCollectionETagInterceptor: o ETag nunca é mais novo que o conteúdo
+        String eTag = animeCollectionVersion.getETag();
+        long lastModified = animeCollectionVersion.getLastModified();
+
+        sequence++;
+        Path bodyPath = directory.resolve("animes-" + sequence + ".json");
+        Path gzipPath = directory.resolve("animes-" + sequence + ".json.gz");
+        long count;
+        // A cópia fica com o ETag lido acima até a próxima escrita, então não pode vir de uma réplica atrasada
+        boolean primaryForced = ReadWriteRoutingDataSource.forcePrimary(true);
+        try {
+            count = write(bodyPath, gzipPath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(bodyPath);
+            Files.deleteIfExists(gzipPath);
+            throw e;
+        } finally {
+            ReadWriteRoutingDataSource.forcePrimary(primaryForced);
+        }
+
+        Body body = map(bodyPath);
+        Body gzipBody = null;
+        if (Files.size(gzipPath) < body.length()) {
+            gzipBody = map(gzipPath);
+        } else {
+            Files.delete(gzipPath);
+        }
+
+        log.info("Anime catalog snapshot built with {} animes ({} bytes, {} gzip) in {} ms", count, body.length(),
+                gzipBody == null ? "no" : gzipBody.length(), System.currentTimeMillis() - start);
+        return new Snapshot(eTag, lastModified, body, gzipBody);
+    }
+
+    // Escreve o JSON e a versão gzip, devolve quantos animes foram escritos
+    private long write(Path bodyPath, Path gzipPath) throws IOException {
+        LongAdder count = new LongAdder();
+        // O mesmo JSON do controller: ObjectMapper do Spring, um anime por vez, sem a lista inteira na memória
+        ObjectWriter writer = objectMapper.writerFor(Anime.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (OutputStream outputStream = Files.newOutputStream(bodyPath);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            animeService.streamAll(anime -> {
+                try {
+                    writer.writeValue(generator, anime);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count.increment();
+            });
+            generator.writeEndArray();
+        }
+
+        try (OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(gzipPath))) {
+            Files.copy(bodyPath, gzip);
+        }
+        return count.sum();
+    }
+
+    private static Body map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Body(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // A cópia anterior fica no disco para os envios ainda em andamento, as mais antigas são apagadas
+    // O mapeamento em memória continua válido mesmo depois do arquivo apagado
+    private void retire(Snapshot previous) {
+        retired.addLast(previous);
+        while (retired.size() > 1) {
+            Snapshot snapshot = retired.removeFirst();
+            delete(snapshot.body);
+            delete(snapshot.gzipBody);
+        }
+    }
+
+    private static void delete(Body body) {
+        if (body == null) return;
+        try {
+            Files.deleteIfExists(body.path);
+        } catch (IOException e) {
+            log.warn("Could not delete the old anime catalog snapshot {}", body.path, e);
+        }
+    }
+}
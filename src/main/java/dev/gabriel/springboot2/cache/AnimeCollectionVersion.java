@@ -0,0 +1,76 @@
+package dev.gabriel.springboot2.cache;
+
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão da coleção de animes: a geração muda a cada escrita vista por esta instância, local ou de outro nó
+// O ETag vem só dos dados, então a mesma coleção tem o mesmo ETag em todos os nós e depois de um restart
+@Component
+@RequiredArgsConstructor
+public class AnimeCollectionVersion {
+    private final AnimeRepository animeRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+    // Resumo da tabela na geração atual, consultado de novo só no primeiro ETag depois de uma escrita
+    private volatile Fingerprint fingerprint;
+
+    // Só depois do commit, senão um leitor poderia guardar dados antigos com a versão nova
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        generation.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public String getETag() {
+        return getETag("");
+    }
+
+    // ETag de uma representação específica da coleção (ex.: "-smile"), ver AnimeMediaTypes
+    public String getETag(String suffix) {
+        return "\"" + fingerprint() + suffix + "\"";
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private String fingerprint() {
+        Fingerprint current = fingerprint;
+        if (current != null && current.getGeneration() == generation.get()) return current.getValue();
+        return refreshFingerprint();
+    }
+
+    // Uma consulta por escrita, não uma por leitor que chegou junto
+    private synchronized String refreshFingerprint() {
+        long currentGeneration = generation.get();
+        Fingerprint current = fingerprint;
+        if (current != null && current.getGeneration() == currentGeneration) return current.getValue();
+
+        // Fica valendo até a próxima escrita, então não pode vir de uma réplica atrasada
+        boolean primaryForced = ReadWriteRoutingDataSource.forcePrimary(true);
+        try {
+            String value = animeRepository.findCollectionFingerprint();
+            fingerprint = new Fingerprint(currentGeneration, value);
+            return value;
+        } finally {
+            ReadWriteRoutingDataSource.forcePrimary(primaryForced);
+        }
+    }
+
+    @Value
+    private static class Fingerprint {
+        long generation;
+        String value;
+    }
+}
@@ -0,0 +1,43 @@
+package dev.gabriel.springboot2.cache;
+
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Total aproximado de animes: conta no banco uma única vez e depois só acompanha as escritas do AnimeService
+// Escritas feitas por fora da aplicação não são vistas, por isso o valor é aproximado
+@Component
+@RequiredArgsConstructor
+public class AnimeCountCache {
+    private static final long UNKNOWN = -1L;
+
+    private final AnimeRepository animeRepository;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public long get() {
+        long current = count.get();
+        if (current != UNKNOWN) return current;
+
+        count.compareAndSet(UNKNOWN, animeRepository.count());
+        return count.get();
+    }
+
+    // Só depois do commit, para não contar escritas que sofreram rollback
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current + 1);
+                break;
+            case DELETED:
+                count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current - 1));
+                break;
+            default:
+                break;
+        }
+    }
+}
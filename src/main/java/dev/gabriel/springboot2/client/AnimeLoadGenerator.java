@@ -0,0 +1,317 @@
+package dev.gabriel.springboot2.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Gerador de carga para os endpoints de /animes
+// Roda com: mvn compile exec:java -Dexec.mainClass=dev.gabriel.springboot2.client.AnimeLoadGenerator -Dexec.classpathScope=test -Dexec.args="--embedded --rps=500"
+// O classpathScope=test é o que traz o H2 do --embedded, que não vai no jar da aplicação
+// Opções (todas opcionais): --base-url --concurrency --duration --warm-up --rps --mix --username --password
+// --bearer --embedded --seed, ver LoadGeneratorOptions
+//
+// Com --rps as requisições saem em intervalos fixos, não importa se o servidor está lento (modelo aberto),
+// e a latência é contada a partir do horário em que a requisição deveria ter saído, então a fila de espera
+// também aparece nos percentis (sem coordinated omission)
+@Log4j2
+public class AnimeLoadGenerator {
+    private static final int PAGE_SIZE = 20;
+    private static final int SEED_CHUNK_SIZE = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadGeneratorOptions options;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // O HttpClient mantém um pool de conexões keep-alive, reaproveitadas entre as requisições
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<LoadOperation, Histogram> latencies = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+    private final LoadOperation[] operationByTicket;
+    // Animes criados pela carga, removidos pelas operações de delete
+    private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private String authorization;
+    private long[] ids;
+    private List<String> names;
+    private long measureFrom;
+
+    public AnimeLoadGenerator(LoadGeneratorOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+
+        List<LoadOperation> tickets = new ArrayList<>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) tickets.add(operation);
+        });
+        this.operationByTicket = tickets.toArray(new LoadOperation[0]);
+
+        for (LoadOperation operation : LoadOperation.values()) {
+            // Em microssegundos, o histograma cresce conforme necessário com 3 dígitos de precisão
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse(args);
+
+        ConfigurableApplicationContext context = options.isEmbedded() ? startEmbeddedApplication() : null;
+        try {
+            String baseUrl = context == null
+                    ? options.getBaseUrl()
+                    : "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            new AnimeLoadGenerator(options, baseUrl).run();
+        } finally {
+            if (context != null) context.close();
+        }
+    }
+
+    // Mesma aplicação, no mesmo processo, com H2 em memória no lugar do MySQL
+    // O gerador e a aplicação dividem a CPU, para números absolutos use um servidor separado
+    private static ConfigurableApplicationContext startEmbeddedApplication() {
+        if (!ClassUtils.isPresent("org.h2.Driver", AnimeLoadGenerator.class.getClassLoader())) {
+            throw new IllegalStateException("--embedded needs H2 on the classpath, run it with -Dexec.classpathScope=test");
+        }
+        return new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.org.hibernate.SQL=warn");
+    }
+
+    public void run() throws IOException, InterruptedException {
+        log.info("Load against {}: {}, concurrency {}, duration {}, warm-up {}, mix {}", baseUrl,
+                options.isOpenModel() ? options.getRps() + " requests/s (open model)" : "closed model",
+                options.getConcurrency(), options.getDuration(), options.getWarmUp(), options.getMix());
+
+        authenticate();
+        prepareData();
+
+        long start = System.nanoTime();
+        measureFrom = start + options.getWarmUp().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency());
+        if (options.isOpenModel()) {
+            dispatchAtFixedRate(workers, start, end);
+        } else {
+            for (int i = 0; i < options.getConcurrency(); i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < end) execute(nextOperation(), System.nanoTime());
+                });
+            }
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(REQUEST_TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            log.warn("Some requests were still running after the test, they are not in the report");
+            workers.shutdownNow();
+        }
+
+        report(Math.max(1, Math.min(System.nanoTime(), end) - measureFrom));
+    }
+
+    // Uma requisição a cada 1/rps segundo, atrasadas (quando todas as threads estão ocupadas) esperam na fila
+    private void dispatchAtFixedRate(ExecutorService workers, long start, long end) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRps();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            long intendedStart = intended;
+            workers.execute(() -> execute(nextOperation(), intendedStart));
+        }
+    }
+
+    private LoadOperation nextOperation() {
+        return operationByTicket[ThreadLocalRandom.current().nextInt(operationByTicket.length)];
+    }
+
+    private void execute(LoadOperation operation, long intendedStart) {
+        Long deletedId = null;
+        if (operation == LoadOperation.DELETE) {
+            deletedId = createdIds.poll();
+            // Só remove animes criados pela própria carga, sem nenhum ainda cadastra um
+            if (deletedId == null) operation = LoadOperation.SAVE;
+        }
+
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request(operation, deletedId), HttpResponse.BodyHandlers.ofByteArray());
+            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+
+            if (response.statusCode() >= 400) {
+                if (intendedStart >= measureFrom) errors.get(operation).increment();
+                return;
+            }
+            if (operation == LoadOperation.SAVE) createdIds.add(objectMapper.readTree(response.body()).path("id").asLong());
+            if (intendedStart >= measureFrom) latencies.get(operation).recordValue(latencyMicros);
+        } catch (IOException e) {
+            if (intendedStart >= measureFrom) errors.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest request(LoadOperation operation, Long deletedId) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case FIND_BY_ID:
+                return get("/animes/" + randomId());
+            case LIST:
+                return get("/animes?page=" + random.nextInt(Math.max(1, ids.length / PAGE_SIZE)) + "&size=" + PAGE_SIZE);
+            case LIST_ALL:
+                return get("/animes/all");
+            case FIND_BY_NAME:
+                return get("/animes/find?name=" + URLEncoder.encode(names.get(random.nextInt(names.size())), StandardCharsets.UTF_8));
+            case SAVE:
+                return send("POST", "/animes", objectMapper.createObjectNode().put("name", "Load anime " + sequence.incrementAndGet()));
+            case REPLACE:
+                return send("PUT", "/animes", objectMapper.createObjectNode()
+                        .put("id", randomId())
+                        .put("name", "Load anime " + sequence.incrementAndGet()));
+            case DELETE:
+                return builder("/animes/" + deletedId).DELETE().build();
+            default:
+                throw new IllegalStateException("Unexpected operation " + operation);
+        }
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private void authenticate() throws IOException, InterruptedException {
+        String basic = "Basic " + HttpHeaders.encodeBasicAuth(options.getUsername(), options.getPassword(), StandardCharsets.UTF_8);
+        authorization = basic;
+        if (!options.isBearer()) return;
+
+        HttpResponse<byte[]> response = httpClient.send(builder("/auth/token")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not get a token for " + options.getUsername() + ": HTTP " + response.statusCode());
+        }
+        authorization = "Bearer " + objectMapper.readTree(response.body()).path("accessToken").asText();
+    }
+
+    // Cadastra os animes usados pelas leituras, ou usa os que já existem com --seed=0
+    private void prepareData() throws IOException, InterruptedException {
+        List<Long> seededIds = new ArrayList<>();
+        List<String> seededNames = new ArrayList<>();
+
+        if (options.getSeed() > 0) {
+            for (int from = 0; from < options.getSeed(); from += SEED_CHUNK_SIZE) {
+                List<ObjectNode> animes = new ArrayList<>();
+                for (int i = from; i < Math.min(options.getSeed(), from + SEED_CHUNK_SIZE); i++) {
+                    animes.add(objectMapper.createObjectNode().put("name", "Seed anime " + i));
+                }
+                JsonNode response = readJson(send("POST", "/animes/batch", objectMapper.valueToTree(animes)));
+                for (JsonNode item : response.path("items")) {
+                    if (!"CREATED".equals(item.path("status").asText())) continue;
+                    seededIds.add(item.path("id").asLong());
+                    seededNames.add(animes.get(item.path("index").asInt()).path("name").asText());
+                }
+            }
+        } else {
+            for (JsonNode anime : readJson(get("/animes?size=1000")).path("content")) {
+                seededIds.add(anime.path("id").asLong());
+                seededNames.add(anime.path("name").asText());
+            }
+        }
+
+        if (seededIds.isEmpty()) throw new IllegalStateException("There are no animes to read, use --seed=<n>");
+        ids = seededIds.stream().mapToLong(Long::longValue).toArray();
+        names = List.copyOf(seededNames);
+        log.info("Using {} animes", ids.length);
+    }
+
+    private JsonNode readJson(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, JsonNode body) throws IOException {
+        return builder(path)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private void report(long measuredNanos) {
+        double seconds = measuredNanos / 1_000_000_000.0;
+        Histogram total = new Histogram(3);
+
+        log.info(String.format("%-12s %9s %7s %9s %9s %9s %9s %9s", "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long operationErrors = errors.get(operation).sum();
+            if (histogram.getTotalCount() == 0 && operationErrors == 0) continue;
+
+            total.add(histogram);
+            log.info(line(operation.getKey(), histogram, operationErrors, seconds));
+        }
+        log.info(line("total", total, errors.values().stream().mapToLong(LongAdder::sum).sum(), seconds));
+    }
+
+    private static String line(String name, Histogram histogram, long errors, double seconds) {
+        return String.format("%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", name, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.gabriel.springboot2.client;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Opções do AnimeLoadGenerator no formato --nome=valor
+@Value
+@Builder(toBuilder = true)
+public class LoadGeneratorOptions {
+    public static final String DEFAULT_MIX = "findById=50,list=15,findByName=15,save=10,replace=5,delete=5";
+
+    String baseUrl;
+    // Threads fazendo requisições (no modelo aberto é o limite de requisições em andamento)
+    int concurrency;
+    Duration duration;
+    // Tempo inicial descartado do relatório (JIT, pool de conexões, caches)
+    Duration warmUp;
+    // Requisições por segundo em intervalos fixos (modelo aberto), 0 faz cada thread disparar assim que a anterior termina
+    int rps;
+    Map<LoadOperation, Integer> mix;
+    String username;
+    String password;
+    // Troca o basic por um token uma única vez, para não medir o bcrypt em toda requisição
+    boolean bearer;
+    // Sobe a aplicação no mesmo processo, com H2 em memória
+    boolean embedded;
+    // Animes cadastrados pelo /animes/batch antes da carga, 0 usa os que já existem
+    int seed;
+
+    public static LoadGeneratorOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Invalid argument '" + arg + "', expected --name=value");
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        LoadGeneratorOptions options = LoadGeneratorOptions.builder()
+                .baseUrl(values.getOrDefault("base-url", "http://localhost:8080"))
+                .concurrency(Integer.parseInt(values.getOrDefault("concurrency", "16")))
+                .duration(DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")))
+                .warmUp(DurationStyle.detectAndParse(values.getOrDefault("warm-up", "5s")))
+                .rps(Integer.parseInt(values.getOrDefault("rps", "0")))
+                .mix(parseMix(values.getOrDefault("mix", DEFAULT_MIX)))
+                .username(values.getOrDefault("username", "gabriel"))
+                .password(values.getOrDefault("password", "academy"))
+                .bearer(Boolean.parseBoolean(values.getOrDefault("bearer", "true")))
+                .embedded(Boolean.parseBoolean(values.getOrDefault("embedded", "false")))
+                .seed(Integer.parseInt(values.getOrDefault("seed", "1000")))
+                .build();
+
+        if (options.concurrency < 1) throw new IllegalArgumentException("--concurrency must be at least 1");
+        if (options.rps < 0) throw new IllegalArgumentException("--rps cannot be negative");
+        if (options.seed < 0) throw new IllegalArgumentException("--seed cannot be negative");
+        return options;
+    }
+
+    // Ex.: findById=50,list=15,save=10 (pesos relativos, não precisam somar 100)
+    static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation=weight");
+
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) throw new IllegalArgumentException("The weight of " + keyAndWeight[0] + " cannot be negative");
+            if (weight > 0) weights.put(LoadOperation.fromKey(keyAndWeight[0].trim()), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("The mix needs at least one operation with weight");
+        return Collections.unmodifiableMap(weights);
+    }
+
+    public boolean isOpenModel() {
+        return rps > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.gabriel.springboot2.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+// Operações do gerador de carga, uma para cada endpoint de /animes
+@Getter
+@AllArgsConstructor
+public enum LoadOperation {
+    FIND_BY_ID("findById", false),
+    LIST("list", false),
+    LIST_ALL("listAll", false),
+    FIND_BY_NAME("findByName", false),
+    SAVE("save", true),
+    REPLACE("replace", true),
+    DELETE("delete", true);
+
+    // Nome usado no --mix e no relatório
+    private final String key;
+    private final boolean write;
+
+    public static LoadOperation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + key + "', expected one of "
+                        + Arrays.toString(Arrays.stream(values()).map(LoadOperation::getKey).toArray())));
+    }
+}
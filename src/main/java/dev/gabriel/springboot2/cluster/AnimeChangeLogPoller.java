@@ -0,0 +1,171 @@
+package dev.gabriel.springboot2.cluster;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.domain.AnimeChangeLog;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeChangeLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lê o anime_change_log das outras instâncias e republica cada escrita como AnimeChangedEvent remoto:
+// a versão da coleção muda (páginas, ETags e a cópia de /animes/all), os índices e a contagem são atualizados
+// e o anime sai do cache de segundo nível
+// A leitura é por keyset (seq > último lido). Um id pulado pode ser de uma transação que gravou antes e ainda
+// não confirmou, então ele é procurado de novo a cada leitura até o gap-timeout
+// Aplicar um id pulado fora de ordem é seguro: duas escritas no mesmo anime não se cruzam (a segunda espera o
+// lock da linha até a primeira confirmar), então elas sempre aparecem na ordem dos seqs
+@Component
+@ConditionalOnProperty(prefix = "anime.cluster", name = "enabled", havingValue = "true")
+@Log4j2
+public class AnimeChangeLogPoller implements InitializingBean, DisposableBean {
+    public static final String METRIC = "anime.change.log";
+    // Limita a memória quando o banco pula muitos ids de uma vez (ex.: rollback de um lote grande)
+    private static final int MAX_GAPS = 10_000;
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    private final AnimeChangeLogRepository animeChangeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache secondLevelCache;
+    private final AnimeProperties.Cluster properties;
+    private final Clock clock;
+    private final Timer lag;
+    private final Counter applied;
+    private final AtomicInteger pendingGaps = new AtomicInteger();
+    // Seq pulado -> quando foi notado, só usados pela thread do poller
+    private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+    private long lastSeq;
+    private ScheduledExecutorService poller;
+
+    public AnimeChangeLogPoller(AnimeChangeLogRepository animeChangeLogRepository,
+                                ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory,
+                                AnimeProperties animeProperties, Clock clock, MeterRegistry meterRegistry) {
+        this.animeChangeLogRepository = animeChangeLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.secondLevelCache = entityManagerFactory.getCache();
+        this.properties = animeProperties.getCluster();
+        this.clock = clock;
+        this.lag = Timer.builder(METRIC + ".lag")
+                .description("Time from a write on another instance until this instance applied it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.applied = Counter.builder(METRIC + ".applied")
+                .description("Writes from other instances applied to the local caches")
+                .register(meterRegistry);
+        meterRegistry.gauge(METRIC + ".gaps", pendingGaps);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Os caches desta instância ainda estão vazios, o que já está no log não precisa ser aplicado
+        lastSeq = animeChangeLogRepository.findMaxSeq();
+
+        long interval = properties.getPollInterval().toMillis();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "anime-change-log-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+
+    public void poll() {
+        try {
+            recheckGaps();
+
+            List<AnimeChangeLog> changes;
+            do {
+                changes = animeChangeLogRepository.findPageAfter(lastSeq, PageRequest.of(0, properties.getBatchSize()));
+                long expectedSeq = lastSeq + 1;
+                for (AnimeChangeLog change : changes) {
+                    for (long seq = expectedSeq; seq < change.getSeq(); seq++) trackGap(seq);
+                    expectedSeq = change.getSeq() + 1;
+                }
+                apply(changes);
+                // Só avança depois de aplicar, uma falha no meio faz a página ser lida de novo
+                if (!changes.isEmpty()) lastSeq = changes.get(changes.size() - 1).getSeq();
+            } while (changes.size() == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Could not poll the anime change log, trying again in {}", properties.getPollInterval(), e);
+        } finally {
+            pendingGaps.set(gaps.size());
+        }
+    }
+
+    private void recheckGaps() {
+        Instant expiredBefore = clock.instant().minus(properties.getGapTimeout());
+        // Passou do tempo: era um id descartado por um rollback
+        gaps.values().removeIf(noticedAt -> noticedAt.isBefore(expiredBefore));
+        if (gaps.isEmpty()) return;
+
+        List<Long> seqs = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < seqs.size(); from += properties.getBatchSize()) {
+            List<AnimeChangeLog> late = animeChangeLogRepository.findBySeqIn(
+                    seqs.subList(from, Math.min(from + properties.getBatchSize(), seqs.size())));
+            apply(late);
+            late.forEach(change -> gaps.remove(change.getSeq()));
+        }
+    }
+
+    private void trackGap(long seq) {
+        if (gaps.size() >= MAX_GAPS) {
+            log.warn("Too many missing anime change log ids, seq {} will not be checked again", seq);
+            return;
+        }
+        gaps.put(seq, clock.instant());
+    }
+
+    private void apply(List<AnimeChangeLog> changes) {
+        Instant now = clock.instant();
+        for (AnimeChangeLog change : changes) {
+            // As escritas desta instância já foram aplicadas pelo AnimeChangedEvent local
+            if (properties.getNodeId().equals(change.getNodeId())) continue;
+
+            secondLevelCache.evict(Anime.class, change.getAnimeId());
+            eventPublisher.publishEvent(AnimeChangedEvent.remote(AnimeChangedEvent.Type.valueOf(change.getOperation().name()),
+                    change.getAnimeId(), change.getName()));
+
+            // Relógios das instâncias um pouco fora de sincronia dariam atraso negativo
+            Duration delay = Duration.between(change.getCreatedAt(), now);
+            lag.record(delay.isNegative() ? Duration.ZERO : delay);
+            applied.increment();
+        }
+    }
+
+    private void purge() {
+        try {
+            int deleted = animeChangeLogRepository.deleteCreatedBefore(clock.instant().minus(properties.getRetention()));
+            if (deleted > 0) log.debug("Purged {} anime change log rows", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge the anime change log", e);
+        }
+    }
+}
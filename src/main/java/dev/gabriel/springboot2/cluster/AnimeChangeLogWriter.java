@@ -0,0 +1,43 @@
+package dev.gabriel.springboot2.cluster;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.AnimeChangeLog;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeChangeLogRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+
+// Grava cada escrita em animes no anime_change_log, de onde as outras instâncias leem (AnimeChangeLogPoller)
+@Component
+@ConditionalOnProperty(prefix = "anime.cluster", name = "enabled", havingValue = "true")
+public class AnimeChangeLogWriter {
+    private final AnimeChangeLogRepository animeChangeLogRepository;
+    private final AnimeProperties.Cluster properties;
+    private final Clock clock;
+
+    public AnimeChangeLogWriter(AnimeChangeLogRepository animeChangeLogRepository, AnimeProperties animeProperties,
+                                Clock clock) {
+        this.animeChangeLogRepository = animeChangeLogRepository;
+        this.properties = animeProperties.getCluster();
+        this.clock = clock;
+    }
+
+    // Antes do commit, na transação da escrita: ou as duas são confirmadas ou nenhuma
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        // Escritas de outras instâncias já estão no log
+        if (event.isRemote()) return;
+
+        animeChangeLogRepository.save(AnimeChangeLog.builder()
+                .animeId(event.getAnimeId())
+                .operation(AnimeChangeLog.Operation.valueOf(event.getType().name()))
+                .name(event.getName())
+                .nodeId(properties.getNodeId())
+                .createdAt(clock.instant())
+                .build());
+    }
+}
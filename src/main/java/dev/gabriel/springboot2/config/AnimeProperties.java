@@ -0,0 +1,136 @@
+package dev.gabriel.springboot2.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Configurações da aplicação, prefixo "anime" no application.yml
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime")
+public class AnimeProperties {
+    private Batch batch = new Batch();
+    private Lookup lookup = new Lookup();
+    private LookupBatch lookupBatch = new LookupBatch();
+    private PageCache pageCache = new PageCache();
+    private CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+    private Security security = new Security();
+    private Datasource datasource = new Datasource();
+    private Cluster cluster = new Cluster();
+
+    @Data
+    public static class Batch {
+        // Quantos animes vão em cada transação / lote JDBC, deve acompanhar o hibernate.jdbc.batch_size
+        private int chunkSize = 50;
+        // Máximo de animes aceitos em uma única requisição
+        private int maxSize = 10000;
+    }
+
+    @Data
+    public static class Lookup {
+        // Ids por consulta IN, abaixo do limite de parâmetros dos bancos (o Oracle aceita 1000)
+        private int chunkSize = 500;
+        // Máximo de ids aceitos em uma única requisição
+        private int maxSize = 1000;
+    }
+
+    // Buscas por id simultâneas agrupadas em uma consulta IN (AnimeLookupBatcher)
+    @Data
+    public static class LookupBatch {
+        private boolean enabled = true;
+        // Quanto a primeira busca do lote espera pelas outras
+        private Duration window = Duration.ofMillis(1);
+        // Um lote cheio é consultado na hora, sem esperar a janela
+        private int maxSize = 100;
+        // Buscas em andamento a partir das quais vale agrupar, abaixo disso cada uma vai direto ao banco
+        private int minConcurrency = 4;
+    }
+
+    // Respostas de GET /animes já serializadas, invalidadas a cada escrita
+    @Data
+    public static class PageCache {
+        private boolean enabled = true;
+        // Soma dos corpos guardados (normal e gzip)
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+        // Páginas maiores não são guardadas, são raras e ocupariam o cache sozinhas
+        private int maxPageSize = 100;
+    }
+
+    // GET /animes/all servido de uma cópia já serializada, refeita em segundo plano depois das escritas
+    @Data
+    public static class CatalogSnapshot {
+        private boolean enabled = true;
+        // Escritas dentro desse intervalo geram uma única reconstrução
+        private Duration rebuildDelay = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Security {
+        private Token token = new Token();
+    }
+
+    @Data
+    public static class Token {
+        // Chave do HMAC-SHA256, pelo menos 32 caracteres. Vazia gera uma chave aleatória a cada start
+        // (tokens deixam de valer depois de um restart e não são aceitos por outras instâncias)
+        private String secret = "";
+        private Duration expiresIn = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Datasource {
+        private Routing routing = new Routing();
+    }
+
+    // Leituras (@Transactional(readOnly = true)) nas réplicas, o resto no spring.datasource (primário)
+    @Data
+    public static class Routing {
+        private boolean enabled = false;
+        private ReplicaSelection selection = ReplicaSelection.ROUND_ROBIN;
+        // Depois de uma escrita, as leituras do mesmo usuário vão para o primário durante esse tempo,
+        // que deve cobrir o atraso da replicação
+        private Duration readYourWritesWindow = Duration.ofSeconds(2);
+        // Réplicas fora do ar ficam de fora até passarem em uma verificação
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        private List<Replica> replicas = new ArrayList<>();
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        // Curto para que uma réplica fora do ar seja descartada rápido (a leitura vai para o primário)
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+
+    // Várias instâncias no mesmo banco: cada escrita vai para a tabela anime_change_log e as outras instâncias
+    // leem a tabela para invalidar os seus caches (cache de segundo nível, índices, versão da coleção)
+    @Data
+    public static class Cluster {
+        private boolean enabled = false;
+        // Identifica as linhas escritas por esta instância, que ela mesma ignora. Único por instância
+        private String nodeId = UUID.randomUUID().toString();
+        // Intervalo entre as leituras, o atraso máximo esperado de uma invalidação
+        private Duration pollInterval = Duration.ofMillis(500);
+        // Linhas por consulta
+        private int batchSize = 500;
+        // Ids pulados podem ser de transações ainda não confirmadas, são procurados de novo até esse tempo passar
+        private Duration gapTimeout = Duration.ofSeconds(10);
+        // Linhas mais antigas são apagadas, precisa cobrir o gap-timeout com folga
+        private Duration retention = Duration.ofHours(1);
+    }
+
+    public enum ReplicaSelection {
+        ROUND_ROBIN,
+        // Réplica com menos conexões em uso (pool do Hikari)
+        LEAST_LOADED
+    }
+}
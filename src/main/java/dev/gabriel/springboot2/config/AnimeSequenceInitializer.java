@@ -0,0 +1,51 @@
+package dev.gabriel.springboot2.config;
+
+import dev.gabriel.springboot2.domain.Anime;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+// Bancos criados quando o id do Anime era IDENTITY já têm ids, mas o ddl-auto cria a anime_seq começando do 1
+// e os próximos INSERTs colidiriam com eles. Na subida a sequence é levada para depois do maior id
+// Roda depois do EntityManagerFactory (que cria a anime_seq) e antes de qualquer INSERT
+@Component
+@Log4j2
+public class AnimeSequenceInitializer implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public AnimeSequenceInitializer(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        // Fora de transação, então com o roteamento de leitura ligado vai para o primário
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from anime", Long.class);
+        if (maxId == null || maxId == 0) return;
+
+        // O otimizador pooled do Hibernate lê o valor V e entrega os ids de V - 49 até V,
+        // então o próximo valor lido precisa ser pelo menos o maior id + 50
+        long required = maxId + Anime.ID_ALLOCATION_SIZE;
+        if (dialect.supportsSequences()) {
+            // Consome um valor da sequence, só abre um buraco nos ids
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(Anime.ID_SEQUENCE), Long.class);
+            if (next != null && next >= required) return;
+            jdbcTemplate.execute("alter sequence " + Anime.ID_SEQUENCE + " restart with " + required);
+        } else {
+            // MySQL: a sequence é a tabela anime_seq (coluna next_val). O where deixa a subida de várias
+            // instâncias ao mesmo tempo segura, o valor só anda para frente
+            int updated = jdbcTemplate.update("update " + Anime.ID_SEQUENCE + " set next_val = ? where next_val < ?",
+                    required, required);
+            if (updated == 0) return;
+        }
+        log.info("Sequence {} moved past the existing anime ids (max id {})", Anime.ID_SEQUENCE, maxId);
+    }
+}
@@ -0,0 +1,16 @@
+package dev.gabriel.springboot2.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    // Injetado onde a hora atual é usada, nos testes pode ser trocado por um Clock fixo
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
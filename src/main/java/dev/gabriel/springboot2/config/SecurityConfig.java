@@ -1,45 +1,114 @@
 package dev.gabriel.springboot2.config;
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import dev.gabriel.springboot2.service.TokenService;
+import dev.gabriel.springboot2.util.TokenSecretKeys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
+import javax.crypto.SecretKey;
+
 // É um @Configuration e é um @Component
 @EnableWebSecurity
 @Log4j2
 @EnableGlobalMethodSecurity(prePostEnabled = true)
+@RequiredArgsConstructor
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
+    private final AnimeProperties animeProperties;
+
+    // O POST /auth/token tem a sua cadeia, avaliada antes da principal e só com basic: um token não pode
+    // ser trocado por outro, senão um token vazado seria renovado para sempre e o expires-in não valeria nada
+    @Configuration
+    @Order(1)
+    public static class TokenEndpointSecurityConfig extends WebSecurityConfigurerAdapter {
+        @Override
+        protected void configure(HttpSecurity http) throws Exception {
+            http.requestMatchers()
+                    .antMatchers("/auth/token")
+                    .and()
+                    .csrf().disable()
+                    .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    .and()
+                    .authorizeRequests()
+                    .anyRequest()
+                    .authenticated()
+                    .and()
+                    .httpBasic();
+        }
+    }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
-        // Todas as requisições (url do controller) precisam passar por uma authenticação básica
+        // Todas as requisições (url do controller) precisam estar autenticadas, por basic ou por token
+        // (menos o POST /auth/token, na TokenEndpointSecurityConfig)
+        // O basic passa pelo bcrypt a cada requisição, então só deveria ser usado no POST /auth/token,
+        // o token (Authorization: Bearer) é verificado só com o HMAC
         http.csrf().disable()
 //                .csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
                 .authorizeRequests()
+                // Métricas (/actuator/prometheus) e demais endpoints do actuator
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                 .anyRequest()
                 .authenticated()
                 .and()
-                .httpBasic();
+                .httpBasic()
+                .and()
+                .oauth2ResourceServer()
+                .jwt()
+                .jwtAuthenticationConverter(TokenService.jwtAuthenticationConverter());
     }
 
-    @Override
-    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+    // Bean em vez do configure(AuthenticationManagerBuilder): os usuários valem para as duas cadeias de filtros
+    @Bean
+    public UserDetailsService userDetailsService() {
         PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
         log.info("Password encoded {}", passwordEncoder.encode("test"));
 
-        auth.inMemoryAuthentication()
-                .withUser("gabriel")
-                .password(passwordEncoder.encode("academy"))
-                .roles("USER", "ADMIN")
-                .and()
-                .withUser("devdojo")
-                .password(passwordEncoder.encode("academy"))
-                .roles("USER");
+        return new InMemoryUserDetailsManager(
+                User.withUsername("gabriel")
+                        .password(passwordEncoder.encode("academy"))
+                        .roles("USER", "ADMIN")
+                        .build(),
+                User.withUsername("devdojo")
+                        .password(passwordEncoder.encode("academy"))
+                        .roles("USER")
+                        .build());
+    }
+
+    @Bean
+    public SecretKey tokenSecretKey() {
+        return TokenSecretKeys.fromSecret(animeProperties.getSecurity().getToken().getSecret());
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey tokenSecretKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSecretKey));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey tokenSecretKey) {
+        return NimbusJwtDecoder.withSecretKey(tokenSecretKey).macAlgorithm(MacAlgorithm.HS256).build();
     }
 }
@@ -1,15 +1,20 @@
 package dev.gabriel.springboot2.configurer;
 
+import dev.gabriel.springboot2.interceptor.AnimeCollectionETagInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 @Configuration
+@RequiredArgsConstructor
 public class GabrielWebMvcConfigurer implements WebMvcConfigurer {
+    private final AnimeCollectionETagInterceptor animeCollectionETagInterceptor;
 
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
@@ -17,4 +22,11 @@ public class GabrielWebMvcConfigurer implements WebMvcConfigurer {
         pageHandler.setFallbackPageable(PageRequest.of(0, 5));
         resolvers.add(pageHandler);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Listagens que dependem da coleção inteira de animes
+        registry.addInterceptor(animeCollectionETagInterceptor)
+                .addPathPatterns("/animes", "/animes/all", "/animes/slice", "/animes/find", "/animes/suggest");
+    }
 }
@@ -1,21 +1,43 @@
 package dev.gabriel.springboot2.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.index.AnimeNameIndex;
+import dev.gabriel.springboot2.index.AnimeTrigramIndex;
 import dev.gabriel.springboot2.requests.AnimePostRequestBody;
 import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import dev.gabriel.springboot2.responses.AnimeCursorPage;
+import dev.gabriel.springboot2.responses.AnimeLookupResponse;
+import dev.gabriel.springboot2.responses.AnimeSuggestion;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.service.AnimeBatchService;
+import dev.gabriel.springboot2.service.AnimeReadCoalescer;
 import dev.gabriel.springboot2.service.AnimeService;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
 import dev.gabriel.springboot2.util.DateUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -23,26 +45,110 @@ import java.util.List;
 @Log4j2
 @RequiredArgsConstructor
 public class AnimeController {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final int MAX_SUGGESTIONS = 50;
+
     private final AnimeService animeService;
+    private final AnimeReadCoalescer animeReadCoalescer;
+    private final AnimeBatchService animeBatchService;
+    private final AnimeNameIndex animeNameIndex;
+    private final AnimeTrigramIndex animeTrigramIndex;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<Page<Anime>> list(Pageable pageable) {
+    public ResponseEntity<Page<AnimeView>> list(Pageable pageable) {
         return ResponseEntity.ok(animeService.listAll(pageable));
     }
 
+    // Paginação sem contagem: o total vai no header X-Total-Count como valor aproximado
+    @GetMapping(path = "/slice")
+    public ResponseEntity<Slice<AnimeView>> listSlice(Pageable pageable) {
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(animeService.countApproximately()))
+                .body(animeService.listAllAsSlice(pageable));
+    }
+
+    // Paginação por cursor: GET /animes?after=<cursor>&size=N (after vazio começa do início)
+    @GetMapping(params = "after")
+    public ResponseEntity<AnimeCursorPage> listAfter(@RequestParam String after,
+                                                     @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(animeService.listAfter(after, size));
+    }
+
+    // Vários animes de uma vez: GET /animes?ids=1,2,3
+    @GetMapping(params = "ids")
+    public ResponseEntity<AnimeLookupResponse> lookup(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(animeService.lookup(ids));
+    }
+
+    // Mesmo que o GET com ids, para listas que não cabem na URL
+    @PostMapping(path = "/lookup")
+    public ResponseEntity<AnimeLookupResponse> lookupAll(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(animeService.lookup(ids));
+    }
+
     @GetMapping(path = "/all")
     public ResponseEntity<List<Anime>> listAll() {
         return ResponseEntity.ok(animeService.listAllNonPageable());
     }
 
+    // Escreve os animes conforme são lidos do banco, como array JSON ou NDJSON (Accept: application/x-ndjson)
+    @GetMapping(path = "/all", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        // Sem flush a cada anime, o buffer do gerador é descarregado quando enche
+        ObjectWriter writer = objectMapper.writerFor(Anime.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (!ndjson) generator.writeStartArray();
+
+                animeService.streamAll(anime -> writeAnime(writer, generator, anime, ndjson));
+
+                if (!ndjson) generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Com o ETag na resposta o Spring responde 304 sozinho, sem serializar, quando o If-None-Match bate
+    // O ETag muda com o formato pedido no Accept (JSON, Smile ou CBOR)
     @GetMapping(path = "/{id}")
-    public ResponseEntity<Anime> findById(@PathVariable long id) {
-        return ResponseEntity.ok(animeService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<Anime> findById(@PathVariable long id,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Anime anime = animeReadCoalescer.findByIdOrThrowBadRequestException(id);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(anime.getId() + "-" + anime.getVersion() + AnimeMediaTypes.eTagSuffix(accept))
+                .varyBy(HttpHeaders.ACCEPT);
+        if (anime.getUpdatedAt() != null) response.lastModified(anime.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        return response.body(anime);
     }
 
     @GetMapping(path = "/find")
-    public ResponseEntity<List<Anime>> findByName(@RequestParam String name) {
-        return ResponseEntity.ok(animeService.findByName(name));
+    public ResponseEntity<List<AnimeView>> findByName(@RequestParam String name) {
+        return ResponseEntity.ok(animeReadCoalescer.findByName(name));
+    }
+
+    // Busca tolerante a erros de digitação, os animes vêm do mais parecido para o menos parecido
+    @GetMapping(path = "/find", params = "fuzzy=true")
+    public ResponseEntity<List<Anime>> findByNameFuzzy(@RequestParam String name,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        validateLimit(limit);
+        return ResponseEntity.ok(animeService.findAllByIdInOrder(animeTrigramIndex.search(name, limit)));
+    }
+
+    // Autocomplete servido pelo índice em memória, não consulta o banco
+    @GetMapping(path = "/suggest")
+    public ResponseEntity<List<AnimeSuggestion>> suggest(@RequestParam String prefix,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        validateLimit(limit);
+        return ResponseEntity.ok(animeNameIndex.suggest(prefix, limit));
     }
 
     @PostMapping
@@ -51,6 +157,13 @@ public class AnimeController {
         return new ResponseEntity<>(animeService.save(anime), HttpStatus.CREATED);
     }
 
+    // Cadastro em massa, cada item é validado e tem o seu resultado na resposta
+    @PostMapping(path = "/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AnimeBatchResponse> saveAll(@RequestBody List<AnimePostRequestBody> animes) {
+        return ResponseEntity.ok(animeBatchService.saveAll(animes));
+    }
+
     @DeleteMapping(path = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable long id) {
         animeService.delete(id);
@@ -58,9 +171,23 @@ public class AnimeController {
     }
 
     @PutMapping
-    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody animePutRequestBody) {
+    public ResponseEntity<Void> replace(@RequestBody @Valid AnimePutRequestBody animePutRequestBody) {
         animeService.replace(animePutRequestBody);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+    }
+
+    private void writeAnime(ObjectWriter writer, JsonGenerator generator, Anime anime, boolean ndjson) {
+        try {
+            writer.writeValue(generator, anime);
+            if (ndjson) generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,228 @@
+package dev.gabriel.springboot2.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Manda as transações readOnly para uma réplica e todo o resto para o primário
+// Precisa ficar atrás de um LazyConnectionDataSourceProxy: o Spring só marca a transação como readOnly
+// depois de pedir a conexão, o proxy adia o pedido até o primeiro comando SQL
+@Log4j2
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+    // Leituras da thread atual que vão para o primário mesmo em transação readOnly, ver forcePrimary
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AnimeProperties.Routing routing;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Última escrita de cada usuário (System.nanoTime), para as leituras dele irem ao primário logo depois
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private ScheduledExecutorService healthChecker;
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        // Conexões em uso mais threads esperando por uma, só disponível no Hikari
+        int load() {
+            if (!(dataSource instanceof HikariDataSource)) return 0;
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicasByName, AnimeProperties.Routing routing) {
+        this.primary = primary;
+        this.routing = routing;
+        List<Replica> replicaList = new ArrayList<>();
+        replicasByName.forEach((name, dataSource) -> replicaList.add(new Replica(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(replicaList);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (replicas.isEmpty()) {
+            log.warn("Read/write routing is enabled without replicas, every query goes to the primary");
+            return;
+        }
+        long interval = routing.getHealthCheckInterval().toMillis();
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable) ((Closeable) replica.dataSource).close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) return primary.getConnection();
+
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            eject(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        if (replica == null) return primary.getConnection(username, password);
+
+        try {
+            return replica.dataSource.getConnection(username, password);
+        } catch (SQLException e) {
+            eject(replica, e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    // Verifica todas as réplicas, as que voltaram entram de novo na seleção
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} is {}", replica.name, healthy ? "healthy again" : "unhealthy, sending its reads to the other replicas");
+            }
+            replica.healthy = healthy;
+        }
+
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite >= routing.getReadYourWritesWindow().toNanos());
+    }
+
+    // Para leituras cujo resultado fica guardado sob a geração atual da coleção (AnimeCollectionVersion):
+    // vindas de uma réplica atrasada, o conteúdo antigo ficaria guardado com a geração nova até a próxima escrita
+    // Sem efeito quando o roteamento está desligado. Devolve o valor anterior, para ser restaurado no finally
+    public static boolean forcePrimary(boolean forced) {
+        boolean previous = isPrimaryForced();
+        if (forced) {
+            PRIMARY_FORCED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_FORCED.remove();
+        }
+        return previous;
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    // Se as leituras do usuário atual estão indo para o primário (janela de read-your-writes)
+    public boolean isPinnedToPrimary() {
+        return wroteRecently(currentUser());
+    }
+
+    // null quer dizer primário
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWrite();
+            return null;
+        }
+        if (isPrimaryForced() || wroteRecently(currentUser())) return null;
+        return selectReplica();
+    }
+
+    private Replica selectReplica() {
+        int size = replicas.size();
+        if (size == 0) return null;
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        Replica selected = null;
+        int selectedLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) continue;
+            if (routing.getSelection() == AnimeProperties.ReplicaSelection.ROUND_ROBIN) return replica;
+
+            // Empates ficam com a primeira da volta, então réplicas igualmente ocupadas se revezam
+            int load = replica.load();
+            if (load < selectedLoad) {
+                selected = replica;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private void eject(Replica replica, SQLException e) {
+        if (replica.healthy) log.warn("Replica {} failed, sending its reads to the other replicas", replica.name, e);
+        replica.healthy = false;
+    }
+
+    // A janela começa quando a transação de escrita é confirmada, não quando começa
+    private void registerWrite() {
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteByUser.put(user, System.nanoTime());
+            }
+        });
+    }
+
+    private boolean wroteRecently(String user) {
+        if (user == null) return false;
+
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) return false;
+        if (System.nanoTime() - lastWrite < routing.getReadYourWritesWindow().toNanos()) return true;
+
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
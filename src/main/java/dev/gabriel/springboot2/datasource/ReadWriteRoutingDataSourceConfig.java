@@ -0,0 +1,70 @@
+package dev.gabriel.springboot2.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ligado com anime.datasource.routing.enabled=true, o primário continua sendo o spring.datasource
+@Configuration
+@ConditionalOnProperty(prefix = "anime.datasource.routing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadWriteRoutingDataSourceConfig {
+    private final AnimeProperties animeProperties;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        AnimeProperties.Routing routing = animeProperties.getDatasource().getRouting();
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<AnimeProperties.Replica> replicaProperties = routing.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            AnimeProperties.Replica properties = replicaProperties.get(i);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrl())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // As réplicas não são beans, então o Spring Boot não registra as métricas do pool delas
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, routing);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
@@ -4,24 +4,55 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.validator.constraints.URL;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
+import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Builder
+// Buscas por id são servidas pelo cache de segundo nível, escritas pelo Hibernate atualizam a região
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "anime")
+// Índice usado pelo findByName, sem ele toda busca por nome é um full table scan
+@Table(indexes = @Index(name = "idx_anime_name", columnList = "name"))
 public class Anime {
+    public static final String ID_SEQUENCE = "anime_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Com IDENTITY o Hibernate precisa de um INSERT por vez para descobrir o id, com a sequence ele reserva
+    // 50 ids de uma vez (no MySQL a sequence vira a tabela anime_seq) e consegue mandar os INSERTs em batch
+    // Em bancos criados com IDENTITY a sequence é ajustada na subida (AnimeSequenceInitializer)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotEmpty(message = "The anime name cannot be empty") // Atributo não pode ser vazio
     private String name;
+
+    // Muda a cada escrita, é a base do ETag do anime
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Data da última escrita, usada no Last-Modified
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,52 @@
+package dev.gabriel.springboot2.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+// Uma linha por escrita em animes, gravada na mesma transação da escrita e lida pelas outras instâncias
+// Índice usado pela limpeza das linhas antigas
+@Table(indexes = @Index(name = "idx_anime_change_log_created_at", columnList = "createdAt"))
+public class AnimeChangeLog {
+    public enum Operation {CREATED, UPDATED, DELETED}
+
+    // Chave da leitura por keyset. IDENTITY, e não uma sequence com ids reservados em blocos por instância,
+    // para que a ordem dos ids acompanhe a ordem em que as linhas são gravadas
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(nullable = false)
+    private Long animeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Operation operation;
+
+    // Nome depois da escrita, as outras instâncias atualizam os índices sem consultar o anime. Nulo na remoção
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    // Horário da instância que escreveu, base da métrica de atraso
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,37 @@
+package dev.gabriel.springboot2.event;
+
+import dev.gabriel.springboot2.domain.Anime;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+// Publicado pelo AnimeService a cada escrita, para quem mantém dados derivados dos animes (contagem, índices, caches)
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class AnimeChangedEvent {
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final long animeId;
+    // Nulo quando o anime foi removido
+    private final String name;
+    // Escrita feita por outra instância, lida do AnimeChangeLog (AnimeChangeLogPoller)
+    private final boolean remote;
+
+    public static AnimeChangedEvent created(Anime anime) {
+        return new AnimeChangedEvent(Type.CREATED, anime.getId(), anime.getName(), false);
+    }
+
+    public static AnimeChangedEvent updated(Anime anime) {
+        return new AnimeChangedEvent(Type.UPDATED, anime.getId(), anime.getName(), false);
+    }
+
+    public static AnimeChangedEvent deleted(long animeId) {
+        return new AnimeChangedEvent(Type.DELETED, animeId, null, false);
+    }
+
+    public static AnimeChangedEvent remote(Type type, long animeId, String name) {
+        return new AnimeChangedEvent(type, animeId, name, true);
+    }
+}
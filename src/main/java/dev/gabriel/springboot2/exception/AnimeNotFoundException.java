@@ -0,0 +1,11 @@
+package dev.gabriel.springboot2.exception;
+
+// Lançada a cada busca por um id que não existe, então não monta o stack trace (a parte cara de uma exceção)
+// Continua sendo uma BadRequestException, a resposta não muda para quem chama a API
+public class AnimeNotFoundException extends BadRequestException {
+    public static final String MESSAGE = "Anime not found!";
+
+    public AnimeNotFoundException() {
+        super(MESSAGE, false);
+    }
+}
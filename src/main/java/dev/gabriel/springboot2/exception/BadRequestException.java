@@ -8,4 +8,9 @@ public class BadRequestException extends RuntimeException {
     public BadRequestException(String message) {
         super(message);
     }
+
+    // Para exceções esperadas (ex.: id inexistente), que não precisam do stack trace
+    protected BadRequestException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
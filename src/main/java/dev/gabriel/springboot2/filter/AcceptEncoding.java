@@ -0,0 +1,19 @@
+package dev.gabriel.springboot2.filter;
+
+// Leitura do header Accept-Encoding das respostas já comprimidas pelos filtros
+final class AcceptEncoding {
+    private AcceptEncoding() {
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            // gzip;q=0 quer dizer que o cliente não aceita gzip
+            return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package dev.gabriel.springboot2.filter;
+
+import dev.gabriel.springboot2.cache.AnimeCatalogSnapshot;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+// GET /animes/all em JSON respondido direto da cópia já serializada (AnimeCatalogSnapshot), sem consultar o banco
+// No Tomcat (conector NIO) o arquivo vai por sendfile: o kernel copia do page cache para o socket, sem passar pela JVM
+// Sem sendfile (ex.: MockMvc) os bytes saem do arquivo mapeado em memória
+// Smile, CBOR, ?stream=true e a janela antes da primeira cópia continuam no controller
+@Component
+public class AnimeCatalogSnapshotFilter extends OncePerRequestFilter {
+    static final String PATH = "/animes/all";
+    // Atributos do sendfile do Tomcat, os mesmos usados pelo DefaultServlet para arquivos estáticos
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AnimeCatalogSnapshot animeCatalogSnapshot;
+    private final AnimeProperties.CatalogSnapshot properties;
+
+    public AnimeCatalogSnapshotFilter(AnimeCatalogSnapshot animeCatalogSnapshot, AnimeProperties animeProperties) {
+        this.animeCatalogSnapshot = animeCatalogSnapshot;
+        this.properties = animeProperties.getCatalogSnapshot();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())
+                || !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))
+                || !request.getParameterMap().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AnimeCatalogSnapshot.Snapshot snapshot = animeCatalogSnapshot.current();
+        if (snapshot == null || !MediaType.APPLICATION_JSON.equals(AnimeMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT)))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Sem passar pelo DispatcherServlet, a métrica http.server.requests ficaria com uri=UNKNOWN
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATH);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // O ETag é o da geração em que a cópia foi montada, não o atual: enquanto a nova cópia não fica pronta,
+        // quem já tem a anterior recebe 304
+        if (new ServletWebRequest(request, response).checkNotModified(snapshot.getETag(), snapshot.getLastModified())) return;
+
+        AnimeCatalogSnapshot.Body body = snapshot.getBody();
+        if (snapshot.getGzipBody() != null && AcceptEncoding.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = snapshot.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLengthLong(body.length());
+        if (HttpMethod.HEAD.matches(request.getMethod())) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // O Tomcat envia o arquivo depois que o filtro termina, nada é escrito aqui
+            request.setAttribute(SENDFILE_FILENAME, body.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, body.length());
+            return;
+        }
+
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        ByteBuffer buffer = body.getBuffer();
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
@@ -0,0 +1,190 @@
+package dev.gabriel.springboot2.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+// Respostas de GET /animes (listagem paginada) já serializadas, por página, tamanho, ordenação e formato
+// Um acerto é respondido direto dos bytes guardados, sem DispatcherServlet, Hibernate ou Jackson
+// Cada entrada guarda a geração da coleção (AnimeCollectionVersion) em que foi montada: qualquer escrita
+// confirmada muda a geração e a entrada deixa de valer
+// Com a ordem padrão dos filtros (a menor precedência) roda depois do Spring Security
+@Component
+public class AnimePageCacheFilter extends OncePerRequestFilter {
+    static final String PATH = "/animes";
+    private static final Set<String> PAGEABLE_PARAMETERS = Set.of("page", "size", "sort");
+    // Os mesmos do PageableHandlerMethodArgumentResolver do GabrielWebMvcConfigurer
+    private static final int DEFAULT_PAGE_SIZE = 5;
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final AnimeCollectionVersion animeCollectionVersion;
+    private final AnimeProperties.PageCache properties;
+    private final Cache<String, CachedPage> cache;
+
+    private static class CachedPage {
+        private final long generation;
+        private final String contentType;
+        private final String eTag;
+        private final long lastModified;
+        private final byte[] body;
+        // null quando o gzip não diminui o corpo
+        private final byte[] gzipBody;
+
+        CachedPage(long generation, String contentType, String eTag, long lastModified, byte[] body) {
+            this.generation = generation;
+            this.contentType = contentType;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.gzipBody = gzip(body);
+        }
+
+        int weight() {
+            return body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+    }
+
+    public AnimePageCacheFilter(AnimeCollectionVersion animeCollectionVersion, AnimeProperties animeProperties,
+                                MeterRegistry meterRegistry) {
+        this.animeCollectionVersion = animeCollectionVersion;
+        this.properties = animeProperties.getPageCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedPage page) -> page.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "anime.page");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = key(request);
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Lida antes da consulta: se uma escrita acontecer no meio do caminho a entrada já nasce vencida
+        long generation = animeCollectionVersion.getGeneration();
+        CachedPage cached = cache.getIfPresent(key);
+        if (cached != null && cached.generation == generation) {
+            writeCached(request, response, cached);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        // A página vai ficar guardada com a geração lida acima, então não pode vir de uma réplica atrasada
+        boolean primaryForced = ReadWriteRoutingDataSource.forcePrimary(true);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            ReadWriteRoutingDataSource.forcePrimary(primaryForced);
+        }
+        if (responseWrapper.getStatus() != HttpStatus.OK.value()) {
+            responseWrapper.copyBodyToResponse();
+            return;
+        }
+
+        // O ETag e o Last-Modified vêm do AnimeCollectionETagInterceptor
+        HttpHeaders headers = new HttpHeaders();
+        String lastModified = responseWrapper.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (lastModified != null) headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        CachedPage page = new CachedPage(generation, responseWrapper.getContentType(),
+                responseWrapper.getHeader(HttpHeaders.ETAG), headers.getLastModified(), responseWrapper.getContentAsByteArray());
+        cache.put(key, page);
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        writeBody(request, response, page);
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, CachedPage page) throws IOException {
+        // Sem passar pelo DispatcherServlet, a métrica http.server.requests ficaria com uri=UNKNOWN
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATH);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (new ServletWebRequest(request, response).checkNotModified(page.eTag, page.lastModified)) return;
+        writeBody(request, response, page);
+    }
+
+    // null quando a requisição não é da listagem paginada ou a página não deve ser guardada
+    private String key(HttpServletRequest request) {
+        MediaType mediaType = AnimeMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (mediaType == null) return null;
+        // after, ids etc. são atendidos por outros métodos do controller
+        if (!PAGEABLE_PARAMETERS.containsAll(request.getParameterMap().keySet())) return null;
+
+        // Normaliza como o Spring Data: página inválida ou negativa vira 0, tamanho inválido vira o padrão
+        int page = Math.max(0, parse(request.getParameter("page"), 0));
+        int size = parse(request.getParameter("size"), DEFAULT_PAGE_SIZE);
+        if (size < 1) size = DEFAULT_PAGE_SIZE;
+        size = Math.min(size, MAX_PAGE_SIZE);
+        if (size > properties.getMaxPageSize()) return null;
+
+        String[] sort = request.getParameterValues("sort");
+        return mediaType + "|" + page + "|" + size + "|" + (sort == null ? "" : String.join("&", sort));
+    }
+
+    private static int parse(String value, int defaultValue) {
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void writeBody(HttpServletRequest request, HttpServletResponse response, CachedPage page) throws IOException {
+        byte[] body = page.body;
+        if (page.gzipBody != null && AcceptEncoding.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = page.gzipBody;
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType(page.contentType);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.size() < body.length ? compressed.toByteArray() : null;
+    }
+}
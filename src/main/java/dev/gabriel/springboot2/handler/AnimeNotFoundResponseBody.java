@@ -0,0 +1,56 @@
+package dev.gabriel.springboot2.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
+import dev.gabriel.springboot2.exception.BadRequestExceptionDetails;
+import dev.gabriel.springboot2.util.DateUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Corpo JSON da resposta de anime não encontrado, já serializado
+// Só o timestamp muda, e ele tem precisão de segundos, então o mesmo byte[] serve todas as respostas do segundo
+@Component
+@RequiredArgsConstructor
+public class AnimeNotFoundResponseBody {
+    private final ObjectMapper objectMapper;
+    private final DateUtil dateUtil;
+    private final AtomicReference<Body> current = new AtomicReference<>();
+
+    @Value
+    private static class Body {
+        LocalDateTime timestamp;
+        byte[] json;
+    }
+
+    public byte[] get() {
+        LocalDateTime timestamp = dateUtil.currentSecond();
+        Body cached = current.get();
+        if (cached != null && cached.getTimestamp().equals(timestamp)) return cached.getJson();
+
+        Body body = new Body(timestamp, serialize(timestamp));
+        current.compareAndSet(cached, body);
+        return body.getJson();
+    }
+
+    private byte[] serialize(LocalDateTime timestamp) {
+        // Mesmo corpo montado pelo RestExceptionHandler para as outras BadRequestException
+        BadRequestExceptionDetails details = BadRequestExceptionDetails.builder()
+                .timestamp(timestamp)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .title(RestExceptionHandler.BAD_REQUEST_TITLE)
+                .details(AnimeNotFoundException.MESSAGE)
+                .developerMessage(AnimeNotFoundException.class.getName())
+                .build();
+        try {
+            return objectMapper.writeValueAsBytes(details);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the anime not found response", e);
+        }
+    }
+}
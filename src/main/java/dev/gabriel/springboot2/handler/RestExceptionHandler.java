@@ -1,12 +1,17 @@
 package dev.gabriel.springboot2.handler;
 
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
 import dev.gabriel.springboot2.exception.BadRequestException;
 import dev.gabriel.springboot2.exception.BadRequestExceptionDetails;
 import dev.gabriel.springboot2.exception.ExceptionDetails;
 import dev.gabriel.springboot2.exception.ValidationExceptionDetails;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
+import dev.gabriel.springboot2.util.DateUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.validation.FieldError;
@@ -16,21 +21,38 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
 @Log4j2
+@RequiredArgsConstructor
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
+    public static final String BAD_REQUEST_TITLE = "Bad Request Exception, Check the Documentation";
+
+    // O timestamp dos erros tem precisão de segundos e é reaproveitado dentro do mesmo segundo
+    private final DateUtil dateUtil;
+    private final AnimeNotFoundResponseBody animeNotFoundResponseBody;
+
+    // Ids inexistentes são o erro mais comum (scrapers), então o corpo JSON vem pronto, sem builder nem serialização
+    // Smile, CBOR e os Accept sem formato nosso passam pela negociação, como as outras BadRequestException
+    @ExceptionHandler(AnimeNotFoundException.class)
+    public ResponseEntity<?> handleAnimeNotFoundException(AnimeNotFoundException exception, WebRequest request) {
+        if (!MediaType.APPLICATION_JSON.equals(AnimeMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT)))) {
+            return handleBadRequestException(exception);
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(animeNotFoundResponseBody.get());
+    }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<BadRequestExceptionDetails> handleBadRequestException(BadRequestException bre) {
         return new ResponseEntity<>(
                 BadRequestExceptionDetails.builder()
-                        .timestamp(LocalDateTime.now())
+                        .timestamp(dateUtil.currentSecond())
                         .status(HttpStatus.BAD_REQUEST.value())
-                        .title("Bad Request Exception, Check the Documentation")
+                        .title(BAD_REQUEST_TITLE)
                         .details(bre.getMessage())
                         .developerMessage(bre.getClass().getName())
                         .build(), HttpStatus.BAD_REQUEST);
@@ -46,7 +68,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
         return new ResponseEntity<>(
                 ValidationExceptionDetails.builder()
-                        .timestamp(LocalDateTime.now())
+                        .timestamp(dateUtil.currentSecond())
                         .status(HttpStatus.BAD_REQUEST.value())
                         .title("Bad Request Exception, Invalid Fields")
                         .details("Check the fields error")
@@ -63,7 +85,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
             Exception ex, @Nullable Object body, HttpHeaders headers, HttpStatus status, WebRequest request) {
 
         ExceptionDetails exceptionDetails = ExceptionDetails.builder()
-                .timestamp(LocalDateTime.now())
+                .timestamp(dateUtil.currentSecond())
                 .status(status.value())
                 .title(ex.getCause().getMessage())
                 .details(ex.getMessage())
@@ -0,0 +1,77 @@
+package dev.gabriel.springboot2.index;
+
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.responses.AnimeSuggestion;
+import dev.gabriel.springboot2.service.AnimeService;
+import dev.gabriel.springboot2.util.NameNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Índice em memória dos nomes ordenados, usado no autocomplete sem consultar o banco
+// A chave é o nome normalizado seguido do id, então nomes repetidos não se sobrescrevem
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class AnimeNameIndex {
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final AnimeService animeService;
+    private final ConcurrentSkipListMap<String, AnimeSuggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        animeService.streamAll(anime -> put(anime.getId(), anime.getName()));
+        log.info("Anime name index built with {} animes in {} ms", keysById.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        if (event.getType() == AnimeChangedEvent.Type.DELETED) {
+            remove(event.getAnimeId());
+        } else {
+            put(event.getAnimeId(), event.getName());
+        }
+    }
+
+    public List<AnimeSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = NameNormalizer.normalize(prefix);
+        List<AnimeSuggestion> suggestions = new ArrayList<>(limit);
+
+        ConcurrentNavigableMap<String, AnimeSuggestion> candidates = entries.tailMap(normalizedPrefix);
+        for (Map.Entry<String, AnimeSuggestion> entry : candidates.entrySet()) {
+            if (suggestions.size() == limit || !entry.getKey().startsWith(normalizedPrefix)) break;
+            suggestions.add(entry.getValue());
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    void put(long id, String name) {
+        String key = NameNormalizer.normalize(name) + ID_SEPARATOR + id;
+        entries.put(key, new AnimeSuggestion(id, name));
+
+        String previousKey = keysById.put(id, key);
+        if (previousKey != null && !previousKey.equals(key)) entries.remove(previousKey);
+    }
+
+    void remove(long id) {
+        String key = keysById.remove(id);
+        if (key != null) entries.remove(key);
+    }
+}
@@ -0,0 +1,206 @@
+package dev.gabriel.springboot2.index;
+
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.service.AnimeService;
+import dev.gabriel.springboot2.util.NameNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Índice invertido de trigramas dos nomes para a busca tolerante a erros de digitação
+// Cada trigrama aponta para os ids dos animes que o contém, a busca conta os trigramas em comum,
+// fica só com os melhores candidatos e confirma cada um pela distância de edição
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class AnimeTrigramIndex {
+    // Trigramas presentes em mais animes que isso são muito comuns para ajudar a filtrar e são ignorados
+    // (a não ser que a busca só tenha trigramas comuns), assim o custo da busca não cresce com o catálogo
+    static final int MAX_POSTINGS_PER_TRIGRAM = 20_000;
+    // Quantos candidatos, no máximo, passam para o cálculo da distância de edição
+    static final int MAX_CANDIDATES = 200;
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final AnimeService animeService;
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedName> namesById = new ConcurrentHashMap<>();
+
+    @Value
+    private static class IndexedName {
+        String normalizedName;
+        Set<String> trigrams;
+    }
+
+    @Value
+    private static class Match {
+        long id;
+        int distance;
+        double similarity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        animeService.streamAll(anime -> put(anime.getId(), anime.getName()));
+        log.info("Anime trigram index built with {} animes and {} trigrams in {} ms",
+                namesById.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimeChanged(AnimeChangedEvent event) {
+        if (event.getType() == AnimeChangedEvent.Type.DELETED) {
+            remove(event.getAnimeId());
+        } else {
+            put(event.getAnimeId(), event.getName());
+        }
+    }
+
+    // Ids dos animes parecidos com o nome, do mais parecido para o menos parecido
+    public List<Long> search(String name, int limit) {
+        String normalizedName = NameNormalizer.normalize(name);
+        Set<String> trigrams = trigrams(normalizedName);
+        if (trigrams.isEmpty()) return List.of();
+
+        Map<Long, Integer> sharedTrigrams = countSharedTrigrams(trigrams);
+
+        // Melhores candidatos pela similaridade dos trigramas (coeficiente de Dice)
+        PriorityQueue<Map.Entry<Long, Double>> candidates = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Integer> entry : sharedTrigrams.entrySet()) {
+            IndexedName indexedName = namesById.get(entry.getKey());
+            if (indexedName == null) continue;
+
+            double similarity = 2.0 * entry.getValue() / (trigrams.size() + indexedName.getTrigrams().size());
+            if (similarity < MIN_SIMILARITY) continue;
+
+            candidates.add(Map.entry(entry.getKey(), similarity));
+            if (candidates.size() > MAX_CANDIDATES) candidates.poll();
+        }
+
+        int maxDistance = maxDistance(normalizedName);
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (Map.Entry<Long, Double> candidate : candidates) {
+            IndexedName indexedName = namesById.get(candidate.getKey());
+            if (indexedName == null) continue;
+
+            int distance = distance(normalizedName, indexedName.getNormalizedName(), maxDistance);
+            if (distance <= maxDistance) matches.add(new Match(candidate.getKey(), distance, candidate.getValue()));
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Match::getDistance)
+                        .thenComparing(Comparator.comparingDouble(Match::getSimilarity).reversed())
+                        .thenComparingLong(Match::getId))
+                .limit(limit)
+                .map(Match::getId)
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    void put(long id, String name) {
+        String normalizedName = NameNormalizer.normalize(name);
+        IndexedName indexedName = new IndexedName(normalizedName, trigrams(normalizedName));
+
+        IndexedName previous = namesById.put(id, indexedName);
+        if (previous != null) removePostings(id, previous);
+
+        indexedName.getTrigrams().forEach(trigram -> postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    void remove(long id) {
+        IndexedName previous = namesById.remove(id);
+        if (previous != null) removePostings(id, previous);
+    }
+
+    private void removePostings(long id, IndexedName indexedName) {
+        indexedName.getTrigrams().forEach(trigram -> postings.computeIfPresent(trigram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    private Map<Long, Integer> countSharedTrigrams(Set<String> trigrams) {
+        List<Set<Long>> selective = new ArrayList<>();
+        Set<Long> smallestCommon = null;
+        for (String trigram : trigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) continue;
+
+            if (ids.size() <= MAX_POSTINGS_PER_TRIGRAM) {
+                selective.add(ids);
+            } else if (smallestCommon == null || ids.size() < smallestCommon.size()) {
+                smallestCommon = ids;
+            }
+        }
+        if (selective.isEmpty() && smallestCommon != null) selective.add(smallestCommon);
+
+        Map<Long, Integer> sharedTrigrams = new HashMap<>();
+        selective.forEach(ids -> ids.forEach(id -> sharedTrigrams.merge(id, 1, Integer::sum)));
+        return sharedTrigrams;
+    }
+
+    // Trigramas com espaços nas bordas, para que o começo e o fim da palavra também contem
+    static Set<String> trigrams(String normalizedName) {
+        if (normalizedName.isEmpty()) return Set.of();
+
+        String padded = "  " + normalizedName + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Quanto maior o nome, mais erros são tolerados: até 1 erro a cada 3 letras, no máximo 4
+    static int maxDistance(String normalizedName) {
+        return Math.max(1, Math.min(4, normalizedName.length() / 3));
+    }
+
+    // Distância de Damerau-Levenshtein (letras trocadas de lugar contam como um erro),
+    // para de calcular assim que passa do máximo
+    static int distance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) return maxDistance + 1;
+
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) return maxDistance + 1;
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,36 @@
+package dev.gabriel.springboot2.interceptor;
+
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// GET condicional das listagens: responde 304 antes de chegar no controller quando o cliente
+// já tem a versão atual da coleção, sem consultar o banco e sem serializar nada
+@Component
+@RequiredArgsConstructor
+public class AnimeCollectionETagInterceptor implements HandlerInterceptor {
+    private final AnimeCollectionVersion animeCollectionVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) return true;
+
+        // O mesmo recurso em JSON, Smile ou CBOR: caches intermediários precisam separar as respostas pelo Accept
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        // Lê a versão antes da consulta, assim uma escrita no meio do caminho nunca fica escondida atrás de um ETag antigo
+        String eTag = animeCollectionVersion.getETag(AnimeMediaTypes.eTagSuffix(request.getHeader(HttpHeaders.ACCEPT)));
+        long lastModified = animeCollectionVersion.getLastModified();
+
+        // Também coloca o ETag e o Last-Modified na resposta quando ela é montada normalmente
+        return !new ServletWebRequest(request, response).checkNotModified(eTag, lastModified);
+    }
+}
@@ -4,6 +4,7 @@ import dev.gabriel.springboot2.domain.Anime;
 import dev.gabriel.springboot2.requests.AnimePostRequestBody;
 import dev.gabriel.springboot2.requests.AnimePutRequestBody;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring")
@@ -12,8 +13,12 @@ public abstract class AnimeMapper {
     public static final AnimeMapper INSTANCE = Mappers.getMapper(AnimeMapper.class);
 
     /* Converte o AnimePostRequestBody para Anime*/
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     public abstract Anime toAnime(AnimePostRequestBody animePostRequestBody);
 
     /* Converte o AnimePutRequestBody para Anime*/
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     public abstract Anime toAnime(AnimePutRequestBody animePutRequestBody);
 }
@@ -0,0 +1,31 @@
+package dev.gabriel.springboot2.repository;
+
+import dev.gabriel.springboot2.domain.AnimeChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface AnimeChangeLogRepository extends JpaRepository<AnimeChangeLog, Long> {
+
+    // Paginação por chave a partir da última linha lida, como o AnimeRepository.findPageAfter
+    @Query("select c from AnimeChangeLog c where c.seq > :after order by c.seq")
+    public List<AnimeChangeLog> findPageAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("select c from AnimeChangeLog c where c.seq in :seqs order by c.seq")
+    public List<AnimeChangeLog> findBySeqIn(@Param("seqs") Collection<Long> seqs);
+
+    @Query("select coalesce(max(c.seq), 0) from AnimeChangeLog c")
+    public long findMaxSeq();
+
+    @Modifying
+    @Transactional
+    @Query("delete from AnimeChangeLog c where c.createdAt < :before")
+    public int deleteCreatedBefore(@Param("before") Instant before);
+}
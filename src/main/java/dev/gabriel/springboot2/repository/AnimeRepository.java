@@ -1,11 +1,54 @@
 package dev.gabriel.springboot2.repository;
 
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.responses.AnimeView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface AnimeRepository extends JpaRepository<Anime, Long> {
+    String VIEW = "new dev.gabriel.springboot2.responses.AnimeView(a.id, a.name, a.version, a.updatedAt)";
 
     public List<Anime> findByName(String name);
+
+    // Projeções das listagens: só as colunas da resposta e nenhuma entidade gerenciada,
+    // então o Hibernate não guarda cópia de cada linha para o dirty checking
+    @Query(value = "select " + VIEW + " from Anime a", countQuery = "select count(a) from Anime a")
+    public Page<AnimeView> findAllViews(Pageable pageable);
+
+    // Retornando Slice o Spring Data não executa o SELECT COUNT(*) da paginação
+    @Query("select " + VIEW + " from Anime a")
+    public Slice<AnimeView> findSliceViews(Pageable pageable);
+
+    // Resumo da tabela para o ETag das listagens, ver AnimeCollectionVersion
+    // Ids só crescem e a versão sobe a cada UPDATE, então qualquer escrita muda pelo menos um dos três
+    @Query("select concat(str(count(a)), '-', str(coalesce(max(a.id), 0)), '-', str(coalesce(sum(a.version), 0))) from Anime a")
+    public String findCollectionFingerprint();
+
+    @Query("select " + VIEW + " from Anime a where a.name = :name")
+    public List<AnimeView> findViewsByName(@Param("name") String name);
+
+    // Lê a tabela em lotes do cursor do banco, sem carregar tudo em memória
+    // Precisa ser consumido dentro de uma transação e fechado no final
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "50"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select a from Anime a")
+    public Stream<Anime> streamAll();
+
+    // Paginação por chave: busca a partir do último id lido usando a chave primária,
+    // sem OFFSET e sem COUNT, então a página 10.000 custa o mesmo que a primeira
+    // Entidades carregadas como somente leitura, sem snapshot para o dirty checking
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select a from Anime a where a.id > :after order by a.id")
+    public List<Anime> findPageAfter(@Param("after") long after, Pageable pageable);
 }
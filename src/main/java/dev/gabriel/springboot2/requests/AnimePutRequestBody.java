@@ -5,12 +5,18 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
 @Data
 @Builder
 // O @Build precisa de um @AllArgsConstructor
 @AllArgsConstructor
 @NoArgsConstructor
 public class AnimePutRequestBody {
+    @NotNull(message = "The anime id cannot be null")
     private Long id;
+    // A entidade também valida o nome no flush, mas aqui o erro vira um 400 com os campos, antes de ler o anime
+    @NotEmpty(message = "The anime name cannot be empty")
     private String name;
 }
@@ -0,0 +1,20 @@
+package dev.gabriel.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeBatchItemResult {
+    public enum Status {CREATED, REJECTED, FAILED}
+
+    // Posição do anime no array enviado
+    private int index;
+    private Status status;
+    private Long id;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package dev.gabriel.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeBatchResponse {
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<AnimeBatchItemResult> items;
+}
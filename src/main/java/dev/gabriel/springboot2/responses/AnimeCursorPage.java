@@ -0,0 +1,20 @@
+package dev.gabriel.springboot2.responses;
+
+import dev.gabriel.springboot2.domain.Anime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeCursorPage {
+    private List<Anime> content;
+    private int size;
+    // Cursor opaco para buscar a próxima página, nulo quando não há mais animes
+    private String nextCursor;
+}
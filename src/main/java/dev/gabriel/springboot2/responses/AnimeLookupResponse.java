@@ -0,0 +1,20 @@
+package dev.gabriel.springboot2.responses;
+
+import dev.gabriel.springboot2.domain.Anime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeLookupResponse {
+    // Na ordem dos ids pedidos, ids repetidos aparecem uma vez só
+    private List<Anime> content;
+    // Ids que não existem, também na ordem do pedido
+    private List<Long> missing;
+}
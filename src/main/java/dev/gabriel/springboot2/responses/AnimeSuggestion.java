@@ -0,0 +1,15 @@
+package dev.gabriel.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeSuggestion {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,21 @@
+package dev.gabriel.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Anime somente leitura das listagens, montado direto na consulta (select new) sem passar pelo contexto
+// de persistência. Mesmo JSON do Anime
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeView {
+    private Long id;
+    private String name;
+    private Long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package dev.gabriel.springboot2.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType;
+    // Em segundos
+    private long expiresIn;
+}
@@ -0,0 +1,123 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.mapper.AnimeMapper;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchItemResult;
+import dev.gabriel.springboot2.responses.AnimeBatchItemResult.Status;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Cadastro em massa: valida cada anime e grava os válidos em lotes,
+// cada lote na sua própria transação e em um único batch JDBC
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class AnimeBatchService {
+    private final AnimeRepository animeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AnimeProperties animeProperties;
+
+    public AnimeBatchResponse saveAll(List<AnimePostRequestBody> animePostRequestBodies) {
+        AnimeProperties.Batch batch = animeProperties.getBatch();
+        if (animePostRequestBodies.size() > batch.getMaxSize()) {
+            throw new BadRequestException("A batch cannot have more than " + batch.getMaxSize() + " animes");
+        }
+
+        AnimeBatchItemResult[] results = new AnimeBatchItemResult[animePostRequestBodies.size()];
+        List<Integer> chunkIndexes = new ArrayList<>(batch.getChunkSize());
+        List<Anime> chunk = new ArrayList<>(batch.getChunkSize());
+
+        for (int index = 0; index < animePostRequestBodies.size(); index++) {
+            AnimePostRequestBody animePostRequestBody = animePostRequestBodies.get(index);
+
+            String violations = validate(animePostRequestBody);
+            if (violations != null) {
+                results[index] = result(index, Status.REJECTED, null, violations);
+                continue;
+            }
+
+            chunkIndexes.add(index);
+            chunk.add(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+
+            if (chunk.size() == batch.getChunkSize()) {
+                saveChunk(chunk, chunkIndexes, results);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) saveChunk(chunk, chunkIndexes, results);
+
+        List<AnimeBatchItemResult> items = Arrays.asList(results);
+        return AnimeBatchResponse.builder()
+                .created(count(items, Status.CREATED))
+                .rejected(count(items, Status.REJECTED))
+                .failed(count(items, Status.FAILED))
+                .items(items)
+                .build();
+    }
+
+    private void saveChunk(List<Anime> chunk, List<Integer> chunkIndexes, AnimeBatchItemResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                animeRepository.saveAll(chunk);
+                // Manda o lote para o banco e libera as entidades, o contexto não cresce entre os lotes
+                // O flush pelo repositório converte a PersistenceException do Hibernate em DataAccessException
+                animeRepository.flush();
+                entityManager.clear();
+                chunk.forEach(anime -> eventPublisher.publishEvent(AnimeChangedEvent.created(anime)));
+            });
+
+            for (int i = 0; i < chunk.size(); i++) {
+                results[chunkIndexes.get(i)] = result(chunkIndexes.get(i), Status.CREATED, chunk.get(i).getId(), null);
+            }
+        } catch (DataAccessException e) {
+            // O lote inteiro sofreu rollback, os outros lotes continuam
+            log.warn("Failed to save a chunk of {} animes", chunk.size(), e);
+            chunkIndexes.forEach(index -> results[index] = result(index, Status.FAILED, null, e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private String validate(AnimePostRequestBody animePostRequestBody) {
+        if (animePostRequestBody == null) return "The anime cannot be null";
+
+        Set<ConstraintViolation<AnimePostRequestBody>> violations = validator.validate(animePostRequestBody);
+        if (violations.isEmpty()) return null;
+
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(","));
+    }
+
+    private static AnimeBatchItemResult result(int index, Status status, Long id, String message) {
+        return AnimeBatchItemResult.builder()
+                .index(index)
+                .status(status)
+                .id(id)
+                .message(message)
+                .build();
+    }
+
+    private static int count(List<AnimeBatchItemResult> items, Status status) {
+        return (int) items.stream().filter(item -> item.getStatus() == status).count();
+    }
+}
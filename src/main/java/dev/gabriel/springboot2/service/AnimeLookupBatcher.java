@@ -0,0 +1,163 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Buscas por id de animes diferentes que chegam juntas viram um único findAllById (IN), uma ida ao banco só
+// A primeira busca abre o lote, espera a janela (ou o lote encher), consulta por todas e completa o future de cada uma
+// Com pouca carga, dentro de uma transação, ou com o anime no cache de segundo nível, a busca vai direto pelo findById
+@Component
+public class AnimeLookupBatcher {
+    public static final String METRIC = "anime.lookup";
+
+    private final AnimeRepository animeRepository;
+    private final Cache secondLevelCache;
+    private final AnimeProperties.LookupBatch properties;
+    private final ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource;
+    // Buscas que vão ao banco neste momento, a medida de carga
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final Counter cached;
+    private final Counter direct;
+    private final Counter batched;
+    private final DistributionSummary batchSize;
+    private final Object lock = new Object();
+    // Lote aceitando buscas, guardado pelo lock
+    private Batch open;
+
+    private static class Batch {
+        // Alterado só com o lock e enquanto o lote está aberto
+        private final Map<Long, CompletableFuture<Anime>> futures = new HashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    public AnimeLookupBatcher(AnimeRepository animeRepository, EntityManagerFactory entityManagerFactory,
+                              AnimeProperties animeProperties,
+                              ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource,
+                              MeterRegistry meterRegistry) {
+        this.animeRepository = animeRepository;
+        this.secondLevelCache = entityManagerFactory.getCache();
+        this.properties = animeProperties.getLookupBatch();
+        this.readWriteRoutingDataSource = readWriteRoutingDataSource;
+        this.cached = counter(meterRegistry, "cached");
+        this.direct = counter(meterRegistry, "direct");
+        this.batched = counter(meterRegistry, "batched");
+        this.batchSize = DistributionSummary.builder(METRIC + ".batch.size")
+                .description("Ids resolved by each batched IN query")
+                .register(meterRegistry);
+    }
+
+    public Optional<Anime> findById(long id) {
+        // Já está no cache de segundo nível, o findById não vai ao banco
+        if (secondLevelCache.contains(Anime.class, id)) {
+            cached.increment();
+            return animeRepository.findById(id);
+        }
+
+        int concurrent = inProgress.incrementAndGet();
+        try {
+            if (!shouldBatch(concurrent)) {
+                direct.increment();
+                return animeRepository.findById(id);
+            }
+            batched.increment();
+            return Optional.ofNullable(await(enqueue(id)));
+        } finally {
+            inProgress.decrementAndGet();
+        }
+    }
+
+    private boolean shouldBatch(int concurrent) {
+        // Dentro de uma transação o resultado depende dela, e quem escreveu há pouco precisa ler do primário
+        return properties.isEnabled()
+                && concurrent >= properties.getMinConcurrency()
+                && !TransactionSynchronizationManager.isActualTransactionActive()
+                && !isPinnedToPrimary();
+    }
+
+    private CompletableFuture<Anime> enqueue(long id) {
+        Batch batch;
+        boolean leader = false;
+        CompletableFuture<Anime> future;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch();
+                leader = true;
+            }
+            batch = open;
+            future = batch.futures.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.futures.size() >= properties.getMaxSize()) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+
+        if (leader) execute(batch);
+        return future;
+    }
+
+    private void execute(Batch batch) {
+        boolean interrupted = false;
+        try {
+            batch.full.await(properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // As outras buscas do lote dependem desta consulta, então ela acontece mesmo assim
+            interrupted = true;
+        }
+        synchronized (lock) {
+            if (open == batch) open = null;
+        }
+
+        Map<Long, CompletableFuture<Anime>> futures = batch.futures;
+        batchSize.record(futures.size());
+        try {
+            Map<Long, Anime> animesById = new HashMap<>(futures.size() * 2);
+            animeRepository.findAllById(futures.keySet()).forEach(anime -> animesById.put(anime.getId(), anime));
+            futures.forEach((id, future) -> future.complete(animesById.get(id)));
+        } catch (RuntimeException | Error e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private boolean isPinnedToPrimary() {
+        ReadWriteRoutingDataSource routing = readWriteRoutingDataSource.getIfAvailable();
+        return routing != null && routing.isPinnedToPrimary();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String path) {
+        return Counter.builder(METRIC)
+                .description("Lookups by id, by how they reached the database")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
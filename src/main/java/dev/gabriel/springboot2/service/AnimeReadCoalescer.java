@@ -0,0 +1,57 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Buscas iguais que chegam ao mesmo tempo (ex.: no lançamento de um anime popular) viram uma consulta só no AnimeService
+// Fica na frente do AnimeService, fora da transação, então quem espera não segura uma conexão do pool
+// Todos recebem o mesmo objeto, que não deve ser alterado por quem chama
+@Service
+public class AnimeReadCoalescer {
+    private final AnimeService animeService;
+    private final AnimeCollectionVersion animeCollectionVersion;
+    private final ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource;
+    private final SingleFlight<String, Anime> findById;
+    private final SingleFlight<String, List<AnimeView>> findByName;
+
+    public AnimeReadCoalescer(AnimeService animeService, AnimeCollectionVersion animeCollectionVersion,
+                              ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource,
+                              MeterRegistry meterRegistry) {
+        this.animeService = animeService;
+        this.animeCollectionVersion = animeCollectionVersion;
+        this.readWriteRoutingDataSource = readWriteRoutingDataSource;
+        this.findById = new SingleFlight<>("findById", meterRegistry);
+        this.findByName = new SingleFlight<>("findByName", meterRegistry);
+    }
+
+    public Anime findByIdOrThrowBadRequestException(long id) {
+        return execute(findById, String.valueOf(id), () -> animeService.findByIdOrThrowBadRequestException(id));
+    }
+
+    public List<AnimeView> findByName(String name) {
+        return execute(findByName, name, () -> animeService.findByName(name));
+    }
+
+    private <V> V execute(SingleFlight<String, V> singleFlight, String key, Supplier<V> loader) {
+        // Dentro de uma transação o resultado depende dela, e quem escreveu há pouco precisa ler do primário
+        if (TransactionSynchronizationManager.isActualTransactionActive() || isPinnedToPrimary()) return loader.get();
+
+        // A geração na chave impede que quem chega depois de uma escrita receba uma consulta começada antes dela
+        return singleFlight.execute(animeCollectionVersion.getGeneration() + ":" + key, loader);
+    }
+
+    private boolean isPinnedToPrimary() {
+        ReadWriteRoutingDataSource routing = readWriteRoutingDataSource.getIfAvailable();
+        return routing != null && routing.isPinnedToPrimary();
+    }
+}
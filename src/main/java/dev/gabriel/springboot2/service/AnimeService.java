@@ -1,56 +1,199 @@
 package dev.gabriel.springboot2.service;
 
+import dev.gabriel.springboot2.cache.AnimeCountCache;
+import dev.gabriel.springboot2.config.AnimeProperties;
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
 import dev.gabriel.springboot2.mapper.AnimeMapper;
 import dev.gabriel.springboot2.repository.AnimeRepository;
 import dev.gabriel.springboot2.requests.AnimePostRequestBody;
 import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
 import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.responses.AnimeCursorPage;
+import dev.gabriel.springboot2.responses.AnimeLookupResponse;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.util.AnimeCursor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AnimeService {
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // Um timer só, separado pelas tags class e method (TimedAspect)
+    public static final String TIMER = "anime.service";
+
     public final AnimeRepository animeRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AnimeCountCache animeCountCache;
+    private final AnimeProperties animeProperties;
+    private final AnimeLookupBatcher animeLookupBatcher;
+
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public Page<AnimeView> listAll(Pageable pageable) {
+        return animeRepository.findAllViews(pageable);
+    }
+
+    // Sem o SELECT COUNT(*) da Page, só sabe se existe próxima página
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public Slice<AnimeView> listAllAsSlice(Pageable pageable) {
+        return animeRepository.findSliceViews(pageable);
+    }
+
+    @Timed(TIMER)
+    public long countApproximately() {
+        return animeCountCache.get();
+    }
+
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public AnimeCursorPage listAfter(String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        // Busca um a mais para saber se existe próxima página
+        List<Anime> animes = animeRepository.findPageAfter(AnimeCursor.decode(cursor), PageRequest.of(0, size + 1));
+        boolean hasNext = animes.size() > size;
+        List<Anime> content = hasNext ? animes.subList(0, size) : animes;
 
-    public Page<Anime> listAll(Pageable pageable) {
-        return animeRepository.findAll(pageable);
+        return AnimeCursorPage.builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasNext ? AnimeCursor.encode(content.get(size - 1).getId()) : null)
+                .build();
     }
 
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
     public List<Anime> listAllNonPageable() {
         return animeRepository.findAll();
     }
 
-    public List<Anime> findByName(String name) {
-        return animeRepository.findByName(name);
+    // Percorre todos os animes linha a linha, tirando cada um do contexto de persistência
+    // depois de consumido para que a memória fique constante independente do tamanho da tabela
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Anime> action) {
+        try (Stream<Anime> animes = animeRepository.streamAll()) {
+            animes.forEach(anime -> {
+                action.accept(anime);
+                entityManager.detach(anime);
+            });
+        }
     }
 
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public List<AnimeView> findByName(String name) {
+        return animeRepository.findViewsByName(name);
+    }
+
+    // Busca vários animes de uma vez mantendo a ordem dos ids informados, ids inexistentes ficam de fora
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public List<Anime> findAllByIdInOrder(List<Long> ids) {
+        Map<Long, Anime> animesById = findAllByIdInChunks(ids);
+
+        return ids.stream()
+                .map(animesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Troca N buscas por id por poucas consultas IN, os ids que não existem vão no campo missing
+    @Timed(TIMER)
+    @Transactional(readOnly = true)
+    public AnimeLookupResponse lookup(List<Long> ids) {
+        int maxSize = animeProperties.getLookup().getMaxSize();
+        if (ids == null || ids.isEmpty()) throw new BadRequestException("At least one id must be informed");
+        if (ids.size() > maxSize) throw new BadRequestException("A lookup cannot have more than " + maxSize + " ids");
+        if (ids.stream().anyMatch(Objects::isNull)) throw new BadRequestException("The ids cannot be null");
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Anime> animesById = findAllByIdInChunks(distinctIds);
+
+        List<Anime> content = new ArrayList<>(animesById.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Anime anime = animesById.get(id);
+            if (anime == null) missing.add(id);
+            else content.add(anime);
+        }
+
+        return AnimeLookupResponse.builder()
+                .content(content)
+                .missing(missing)
+                .build();
+    }
+
+    // Sem transação aqui: quem espera um lote do AnimeLookupBatcher não segura conexão,
+    // o findById/findAllById do repositório abre a sua (somente leitura)
+    @Timed(TIMER)
     public Anime findByIdOrThrowBadRequestException(long id) {
-        return animeRepository.findById(id)
-                .orElseThrow(() -> new BadRequestException("Anime not found!"));
+        return animeLookupBatcher.findById(id)
+                .orElseThrow(AnimeNotFoundException::new);
     }
-    // @Transactional(rollbackOn = Exception.class)
-    // Rollback em caso de exceção (Para Exception.class, colocar @Transactional(rollbackOn = Exception.class))
+    // @Transactional(rollbackFor = Exception.class)
+    // Rollback em caso de exceção (Para Exception.class, colocar @Transactional(rollbackFor = Exception.class))
 
+    @Timed(TIMER)
     @Transactional
     public Anime save(AnimePostRequestBody animePostRequestBody) {
-        return animeRepository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        Anime savedAnime = animeRepository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        eventPublisher.publishEvent(AnimeChangedEvent.created(savedAnime));
+        return savedAnime;
     }
 
+    @Timed(TIMER)
+    @Transactional
     public void delete(long id) {
-        animeRepository.delete(findByIdOrThrowBadRequestException(id));
+        // Um comando (o DELETE) com o anime no cache de segundo nível, SELECT + DELETE fora dele
+        Anime anime = animeRepository.findById(id).orElseThrow(AnimeNotFoundException::new);
+        animeRepository.delete(anime);
+        eventPublisher.publishEvent(AnimeChangedEvent.deleted(id));
     }
 
+    @Timed(TIMER)
+    @Transactional
     public void replace(AnimePutRequestBody animePutRequestBody) {
-        Anime savedAnime = findByIdOrThrowBadRequestException(animePutRequestBody.getId());
-        Anime anime = AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
-        anime.setId(savedAnime.getId());
-        animeRepository.save(anime);
+        Anime anime = animeRepository.findById(animePutRequestBody.getId()).orElseThrow(AnimeNotFoundException::new);
+        // O dirty checking gera o UPDATE com a versão e a data, e o Hibernate troca só este anime no cache
+        // Um comando com o anime no cache de segundo nível, SELECT + UPDATE fora dele (TTL, evictAll, nó novo)
+        anime.setName(animePutRequestBody.getName());
+        eventPublisher.publishEvent(AnimeChangedEvent.updated(anime));
+    }
+
+    private Map<Long, Anime> findAllByIdInChunks(List<Long> ids) {
+        int chunkSize = animeProperties.getLookup().getChunkSize();
+        Map<Long, Anime> animesById = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            animeRepository.findAllById(chunk).forEach(anime -> animesById.put(anime.getId(), anime));
+        }
+        return animesById;
     }
 }
@@ -0,0 +1,70 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.responses.TokenResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Troca um login já validado (basic) por um token assinado, que é verificado só com o HMAC nas próximas requisições
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+    public static final String ROLES_CLAIM = "roles";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtEncoder jwtEncoder;
+    private final AnimeProperties animeProperties;
+
+    public TokenResponse issue(Authentication authentication) {
+        Duration expiresIn = animeProperties.getSecurity().getToken().getExpiresIn();
+        Instant now = Instant.now();
+
+        // Guarda os papéis sem o prefixo ROLE_, do mesmo jeito que são cadastrados no SecurityConfig
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .collect(Collectors.toList());
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(expiresIn))
+                .claim(ROLES_CLAIM, roles)
+                .build();
+
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+
+        return TokenResponse.builder()
+                .accessToken(token)
+                .tokenType("Bearer")
+                .expiresIn(expiresIn.getSeconds())
+                .build();
+    }
+
+    // Os papéis do token viram ROLE_USER/ROLE_ADMIN, então o @PreAuthorize("hasRole('ADMIN')") continua valendo
+    public static JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(ROLES_CLAIM);
+        authoritiesConverter.setAuthorityPrefix(ROLE_PREFIX);
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return converter;
+    }
+}
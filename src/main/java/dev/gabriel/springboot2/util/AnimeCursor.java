@@ -0,0 +1,32 @@
+package dev.gabriel.springboot2.util;
+
+import dev.gabriel.springboot2.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Cursor da paginação por chave: o cliente só enxerga um token, o servidor guarda o último id lido
+public final class AnimeCursor {
+    private static final String PREFIX = "id:";
+
+    private AnimeCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor vazio começa do primeiro anime
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) throw new BadRequestException("Invalid cursor");
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
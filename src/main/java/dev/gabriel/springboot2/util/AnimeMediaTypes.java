@@ -0,0 +1,46 @@
+package dev.gabriel.springboot2.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+// Formatos das respostas: JSON (padrão), Smile e CBOR, escolhidos pelo header Accept
+public final class AnimeMediaTypes {
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    private AnimeMediaTypes() {
+    }
+
+    // Formato que o Spring MVC vai escolher para o Accept, null quando nenhum dos três é aceito
+    public static MediaType negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) return MediaType.APPLICATION_JSON;
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) continue;
+            // JSON primeiro: */* e application/* continuam recebendo JSON, como no Spring MVC
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) return MediaType.APPLICATION_JSON;
+            if (mediaType.includes(SMILE)) return SMILE;
+            if (mediaType.includes(CBOR)) return CBOR;
+        }
+        return null;
+    }
+
+    // Cada formato é uma representação diferente e precisa do seu próprio ETag, senão um cliente
+    // JSON poderia receber 304 para um corpo em Smile guardado em um cache intermediário
+    public static String eTagSuffix(String accept) {
+        MediaType mediaType = negotiate(accept);
+        if (SMILE.equals(mediaType)) return "-smile";
+        if (CBOR.equals(mediaType)) return "-cbor";
+        return "";
+    }
+}
@@ -1,14 +1,67 @@
 package dev.gabriel.springboot2.util;
 
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Datas e horas dos caminhos quentes (corpos de erro, logs): o formatter é compilado uma única vez
+// e o último segundo formatado fica guardado, então chamadas dentro do mesmo segundo não alocam nada
 @Component
+@RequiredArgsConstructor
 public class DateUtil {
+    public static final DateTimeFormatter DATABASE_STYLE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public String formatLocalDateTimeToDatabaseStyle (LocalDateTime localDateTime) {
-        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(localDateTime);
+    private final Clock clock;
+    // Trocados inteiros com compareAndSet, sem lock: quem perde a corrida só formata de novo
+    private final AtomicReference<Second> currentSecond = new AtomicReference<>();
+    private final AtomicReference<Second> lastFormattedSecond = new AtomicReference<>();
+
+    @Value
+    private static class Second {
+        long epochSecond;
+        LocalDateTime localDateTime;
+        String databaseStyle;
+    }
+
+    public String formatLocalDateTimeToDatabaseStyle(LocalDateTime localDateTime) {
+        // O formato não tem frações de segundo, então o segundo identifica o texto
+        long epochSecond = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        Second cached = lastFormattedSecond.get();
+        if (cached != null && cached.getEpochSecond() == epochSecond) return cached.getDatabaseStyle();
+
+        Second second = new Second(epochSecond, localDateTime, DATABASE_STYLE.format(localDateTime));
+        lastFormattedSecond.compareAndSet(cached, second);
+        return second.getDatabaseStyle();
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    // Data e hora atual sem as frações de segundo, a mesma instância durante todo o segundo
+    public LocalDateTime currentSecond() {
+        return currentSecondCached().getLocalDateTime();
+    }
+
+    public String currentSecondInDatabaseStyle() {
+        return currentSecondCached().getDatabaseStyle();
+    }
+
+    private Second currentSecondCached() {
+        long epochSecond = Math.floorDiv(clock.millis(), 1000L);
+        Second cached = currentSecond.get();
+        if (cached != null && cached.getEpochSecond() == epochSecond) return cached;
+
+        LocalDateTime localDateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), clock.getZone());
+        Second second = new Second(epochSecond, localDateTime, DATABASE_STYLE.format(localDateTime));
+        currentSecond.compareAndSet(cached, second);
+        return second;
     }
 }
@@ -0,0 +1,21 @@
+package dev.gabriel.springboot2.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Normaliza nomes para busca: sem acentos, minúsculo e com espaços simples
+public final class NameNormalizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private NameNormalizer() {
+    }
+
+    public static String normalize(String name) {
+        if (name == null) return "";
+
+        String withoutAccents = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACES.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
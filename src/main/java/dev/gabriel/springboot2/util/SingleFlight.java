@@ -0,0 +1,67 @@
+package dev.gabriel.springboot2.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Chamadas simultâneas com a mesma chave esperam a que já está em andamento e recebem o mesmo resultado
+// (ou a mesma exceção), em vez de repetir o trabalho. Nada fica guardado depois que a chamada termina
+// Métrica anime.single.flight: role=leader executou, role=follower aproveitou a chamada de outro
+public class SingleFlight<K, V> {
+    public static final String METRIC = "anime.single.flight";
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder(METRIC)
+                .description("Calls executed, shared with the identical calls that arrived while they ran")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder(METRIC)
+                .description("Calls that waited for an identical call already in flight instead of executing")
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inProgress = inFlight.putIfAbsent(key, flight);
+        if (inProgress != null) {
+            followers.increment();
+            return await(inProgress);
+        }
+
+        leaders.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Sai do mapa antes de completar: quem chegar agora faz uma chamada nova em vez de pegar um resultado pronto
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
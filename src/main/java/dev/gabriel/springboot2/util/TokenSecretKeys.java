@@ -0,0 +1,36 @@
+package dev.gabriel.springboot2.util;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+
+// Chave HMAC dos tokens, compartilhada entre a aplicação servlet e a reativa
+@Log4j2
+public final class TokenSecretKeys {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private TokenSecretKeys() {
+    }
+
+    public static SecretKey fromSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("anime.security.token.secret is not set, using a random key: tokens will not survive a restart");
+            try {
+                return KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("anime.security.token.secret must have at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        return new SecretKeySpec(bytes, HMAC_ALGORITHM);
+    }
+}
@@ -0,0 +1,165 @@
+package dev.gabriel.springboot2.reactive.controller;
+
+import dev.gabriel.springboot2.reactive.domain.Anime;
+import dev.gabriel.springboot2.reactive.repository.ReactiveAnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.responses.TokenResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sobe a ReactiveAnimeApplication inteira com o H2 em memória via R2DBC
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveAnimeControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private ReactiveAnimeRepository animeRepository;
+
+    private Anime savedAnime;
+
+    @BeforeEach
+    void setUp() {
+        animeRepository.deleteAll().block();
+        savedAnime = animeRepository.save(Anime.builder().name("Naruto").updatedAt(LocalDateTime.now()).build()).block();
+    }
+
+    @Test
+    @DisplayName("list returns a page of animes when successful")
+    void list_ReturnsPageOfAnimes_WhenSuccessful() {
+        webTestClient.get().uri("/animes?page=0&size=5")
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("Naruto")
+                .jsonPath("$.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("listAll streams every anime as ndjson when successful")
+    void listAll_StreamsAnimesAsNdjson_WhenSuccessful() {
+        animeRepository.saveAll(List.of(
+                Anime.builder().name("Bleach").updatedAt(LocalDateTime.now()).build(),
+                Anime.builder().name("One Piece").updatedAt(LocalDateTime.now()).build())).blockLast();
+
+        Flux<Anime> animes = webTestClient.get().uri("/animes/all")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Anime.class)
+                .getResponseBody();
+
+        StepVerifier.create(animes.map(Anime::getName))
+                .expectNext("Naruto", "Bleach", "One Piece")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById returns bad request when anime is not found")
+    void findById_ReturnsBadRequest_WhenAnimeIsNotFound() {
+        webTestClient.get().uri("/animes/{id}", savedAnime.getId() + 1)
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("save returns created anime when user is admin")
+    void save_ReturnsCreatedAnime_WhenUserIsAdmin() {
+        webTestClient.post().uri("/animes")
+                .headers(headers -> headers.setBasicAuth("gabriel", "academy"))
+                .bodyValue(new AnimePostRequestBody("Bleach"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.name").isEqualTo("Bleach")
+                .jsonPath("$.version").isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("save returns forbidden when user is not admin")
+    void save_ReturnsForbidden_WhenUserIsNotAdmin() {
+        webTestClient.post().uri("/animes")
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .bodyValue(new AnimePostRequestBody("Bleach"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @DisplayName("save returns bad request when name is empty")
+    void save_ReturnsBadRequest_WhenNameIsEmpty() {
+        webTestClient.post().uri("/animes")
+                .headers(headers -> headers.setBasicAuth("gabriel", "academy"))
+                .bodyValue(new AnimePostRequestBody(""))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("replace updates the name and the version when successful")
+    void replace_UpdatesNameAndVersion_WhenSuccessful() {
+        webTestClient.put().uri("/animes")
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .bodyValue(new AnimePutRequestBody(savedAnime.getId(), "Naruto Shippuden"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        Anime replaced = animeRepository.findById(savedAnime.getId()).block();
+        Assertions.assertThat(replaced).isNotNull();
+        Assertions.assertThat(replaced.getName()).isEqualTo("Naruto Shippuden");
+        Assertions.assertThat(replaced.getVersion()).isEqualTo(savedAnime.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("delete removes anime when successful")
+    void delete_RemovesAnime_WhenSuccessful() {
+        webTestClient.delete().uri("/animes/{id}", savedAnime.getId())
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/animes/{id}", savedAnime.getId())
+                .headers(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("bearer token keeps the ADMIN role when successful")
+    void save_ReturnsCreatedAnime_WhenBearerTokenHasAdminRole() {
+        TokenResponse token = webTestClient.post().uri("/auth/token")
+                .headers(headers -> headers.setBasicAuth("gabriel", "academy"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        Assertions.assertThat(token).isNotNull();
+
+        webTestClient.post().uri("/animes")
+                .headers(headers -> headers.setBearerAuth(token.getAccessToken()))
+                .bodyValue(new AnimePostRequestBody("Bleach"))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+}
@@ -0,0 +1,29 @@
+package dev.gabriel.springboot2.reactive;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.service.TokenService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+
+// Variante reativa da API (WebFlux + R2DBC), para comparar com a aplicação servlet sob a mesma carga
+// Fica em src/reactive e só compila com o perfil reactive. Roda com: mvn spring-boot:run -Preactive
+// Só escaneia o pacote reactive, o JPA e o DataSource ficam desligados
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class})
+@EnableConfigurationProperties(AnimeProperties.class)
+@Import(TokenService.class)
+public class ReactiveAnimeApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveAnimeApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(args);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.gabriel.springboot2.reactive.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.service.TokenService;
+import dev.gabriel.springboot2.util.TokenSecretKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import javax.crypto.SecretKey;
+
+// Mesmas regras do SecurityConfig: basic ou token, e os mesmos usuários
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+    private final AnimeProperties animeProperties;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .matchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                .anyExchange()
+                .authenticated()
+                .and()
+                .httpBasic()
+                .and()
+                .oauth2ResourceServer()
+                .jwt()
+                .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(TokenService.jwtAuthenticationConverter()))
+                .and()
+                .and()
+                .build();
+    }
+
+    @Bean
+    public MapReactiveUserDetailsService userDetailsService() {
+        PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        return new MapReactiveUserDetailsService(
+                User.withUsername("gabriel")
+                        .password(passwordEncoder.encode("academy"))
+                        .roles("USER", "ADMIN")
+                        .build(),
+                User.withUsername("devdojo")
+                        .password(passwordEncoder.encode("academy"))
+                        .roles("USER")
+                        .build());
+    }
+
+    @Bean
+    public SecretKey tokenSecretKey() {
+        return TokenSecretKeys.fromSecret(animeProperties.getSecurity().getToken().getSecret());
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey tokenSecretKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSecretKey));
+    }
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(SecretKey tokenSecretKey) {
+        return NimbusReactiveJwtDecoder.withSecretKey(tokenSecretKey).macAlgorithm(MacAlgorithm.HS256).build();
+    }
+}
@@ -0,0 +1,73 @@
+package dev.gabriel.springboot2.reactive.controller;
+
+import dev.gabriel.springboot2.reactive.domain.Anime;
+import dev.gabriel.springboot2.reactive.service.ReactiveAnimeService;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+// Mesmas rotas do AnimeController, com Mono/Flux no lugar dos retornos bloqueantes
+@RestController
+@RequestMapping("animes")
+@Log4j2
+@RequiredArgsConstructor
+public class ReactiveAnimeController {
+    private final ReactiveAnimeService animeService;
+
+    @GetMapping
+    public Mono<ResponseEntity<Page<Anime>>> list(Pageable pageable) {
+        return animeService.listAll(pageable).map(ResponseEntity::ok);
+    }
+
+    // Com Accept: application/x-ndjson cada anime é escrito assim que sai do banco, no ritmo em que o cliente lê
+    @GetMapping(path = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<Anime>> listAll() {
+        return ResponseEntity.ok(animeService.streamAll());
+    }
+
+    @GetMapping(path = "/{id}")
+    public Mono<ResponseEntity<Anime>> findById(@PathVariable long id) {
+        return animeService.findByIdOrThrowBadRequestException(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(path = "/find")
+    public ResponseEntity<Flux<Anime>> findByName(@RequestParam String name) {
+        return ResponseEntity.ok(animeService.findByName(name));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Anime>> save(@RequestBody @Valid AnimePostRequestBody anime) {
+        return animeService.save(anime).map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    @DeleteMapping(path = "/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable long id) {
+        return animeService.delete(id).then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+    }
+
+    @PutMapping
+    public Mono<ResponseEntity<Void>> replace(@RequestBody @Valid AnimePutRequestBody animePutRequestBody) {
+        return animeService.replace(animePutRequestBody).then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+    }
+}
@@ -0,0 +1,22 @@
+package dev.gabriel.springboot2.reactive.controller;
+
+import dev.gabriel.springboot2.responses.TokenResponse;
+import dev.gabriel.springboot2.service.TokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("auth")
+@RequiredArgsConstructor
+public class ReactiveAuthController {
+    private final TokenService tokenService;
+
+    @PostMapping(path = "/token")
+    public ResponseEntity<TokenResponse> token(Authentication authentication) {
+        return ResponseEntity.ok(tokenService.issue(authentication));
+    }
+}
@@ -0,0 +1,26 @@
+package dev.gabriel.springboot2.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Mesma tabela e mesmo JSON do dev.gabriel.springboot2.domain.Anime, mapeado pelo Spring Data R2DBC
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("anime")
+public class Anime {
+    @Id
+    private Long id;
+    private String name;
+    @Version
+    private Long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package dev.gabriel.springboot2.reactive.repository;
+
+import dev.gabriel.springboot2.reactive.domain.Anime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveAnimeRepository extends R2dbcRepository<Anime, Long> {
+
+    public Flux<Anime> findByName(String name);
+
+    public Flux<Anime> findAllBy(Pageable pageable);
+
+    // Escritas em um único comando, o retorno é a quantidade de linhas afetadas. A versão servlet carrega o anime
+    // antes (para o Hibernate trocar só ele no cache) e só fica em um comando quando ele está no cache de segundo nível
+    @Modifying
+    @Query("update anime set name = :name, version = version + 1, updated_at = :updatedAt where id = :id")
+    public Mono<Integer> updateNameById(@Param("id") long id, @Param("name") String name, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("delete from anime where id = :id")
+    public Mono<Integer> deleteAnimeById(@Param("id") long id);
+}
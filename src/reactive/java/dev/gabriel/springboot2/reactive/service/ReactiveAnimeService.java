@@ -0,0 +1,63 @@
+package dev.gabriel.springboot2.reactive.service;
+
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
+import dev.gabriel.springboot2.reactive.domain.Anime;
+import dev.gabriel.springboot2.reactive.repository.ReactiveAnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Nenhum método bloqueia: enquanto o banco responde a thread do event loop atende outras requisições
+@Service
+@RequiredArgsConstructor
+public class ReactiveAnimeService {
+    private final ReactiveAnimeRepository animeRepository;
+
+    public Mono<Page<Anime>> listAll(Pageable pageable) {
+        return animeRepository.findAllBy(pageable).collectList()
+                .zipWith(animeRepository.count())
+                .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2()));
+    }
+
+    // As linhas são lidas do banco conforme o cliente consome (backpressure), sem carregar a tabela em memória
+    public Flux<Anime> streamAll() {
+        return animeRepository.findAll();
+    }
+
+    public Flux<Anime> findByName(String name) {
+        return animeRepository.findByName(name);
+    }
+
+    public Mono<Anime> findByIdOrThrowBadRequestException(long id) {
+        return animeRepository.findById(id)
+                .switchIfEmpty(Mono.error(AnimeNotFoundException::new));
+    }
+
+    public Mono<Anime> save(AnimePostRequestBody animePostRequestBody) {
+        return animeRepository.save(Anime.builder()
+                .name(animePostRequestBody.getName())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    public Mono<Void> delete(long id) {
+        return animeRepository.deleteAnimeById(id).flatMap(this::requireAffectedRow);
+    }
+
+    public Mono<Void> replace(AnimePutRequestBody animePutRequestBody) {
+        return animeRepository.updateNameById(animePutRequestBody.getId(), animePutRequestBody.getName(), LocalDateTime.now())
+                .flatMap(this::requireAffectedRow);
+    }
+
+    private Mono<Void> requireAffectedRow(int affectedRows) {
+        return affectedRows == 0 ? Mono.error(new AnimeNotFoundException()) : Mono.empty();
+    }
+}
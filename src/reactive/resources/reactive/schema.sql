@@ -0,0 +1,9 @@
+-- Mesma tabela gerada pelo Hibernate para a aplicação servlet
+create table if not exists anime (
+    id bigint auto_increment primary key,
+    name varchar(255) not null,
+    version bigint not null,
+    updated_at timestamp
+);
+
+create index if not exists idx_anime_name on anime (name);
@@ -0,0 +1,202 @@
+package dev.gabriel.springboot2.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.service.AnimeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+class AnimeCatalogSnapshotTest {
+    private AnimeService animeServiceMock;
+    private AnimeRepository animeRepositoryMock;
+    private AnimeCollectionVersion animeCollectionVersion;
+    private ObjectMapper objectMapper;
+    private AnimeProperties animeProperties;
+    private AnimeCatalogSnapshot animeCatalogSnapshot;
+    private List<Anime> animes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        animeServiceMock = Mockito.mock(AnimeService.class);
+        animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("20-20-0");
+        animeCollectionVersion = new AnimeCollectionVersion(animeRepositoryMock);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        animeProperties = new AnimeProperties();
+        animeCatalogSnapshot = new AnimeCatalogSnapshot(animeServiceMock, animeCollectionVersion, objectMapper, animeProperties);
+        animeCatalogSnapshot.afterPropertiesSet();
+
+        animes = LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> Anime.builder().id(id).name("Hajime no Ippo " + id).version(0L).build())
+                .collect(Collectors.toList());
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Anime> action = invocation.getArgument(0);
+            animes.forEach(action);
+            return null;
+        }).given(animeServiceMock).streamAll(ArgumentMatchers.any());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        animeCatalogSnapshot.destroy();
+    }
+
+    @Test
+    @DisplayName("rebuildNow serializes the same JSON as the controller, raw and gzip, when successful")
+    void rebuildNow_SerializesSameJsonAsController_WhenSuccessful() throws IOException {
+        animeCatalogSnapshot.rebuildNow();
+
+        AnimeCatalogSnapshot.Snapshot snapshot = animeCatalogSnapshot.current();
+        String expected = objectMapper.writeValueAsString(animes);
+        Assertions.assertThat(snapshot).isNotNull();
+        Assertions.assertThat(snapshot.getETag()).isEqualTo(animeCollectionVersion.getETag());
+        Assertions.assertThat(string(snapshot.getBody().getBuffer())).isEqualTo(expected);
+        Assertions.assertThat(snapshot.getGzipBody().length()).isLessThan(snapshot.getBody().length());
+        Assertions.assertThat(gunzip(snapshot.getGzipBody().getBuffer())).isEqualTo(expected);
+        Assertions.assertThat(Files.readString(snapshot.getBody().getPath())).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("rebuildNow runs the rebuild on the rebuild thread when called from another thread")
+    void rebuildNow_RunsOnRebuildThread_WhenCalledFromAnotherThread() {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        BDDMockito.willAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return null;
+        }).given(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeCatalogSnapshot.rebuildNow();
+
+        Assertions.assertThat(threadName).hasValue("anime-catalog-snapshot");
+        Assertions.assertThat(animeCatalogSnapshot.current()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("rebuildNow reads the animes from the primary when successful")
+    void rebuildNow_ReadsAnimesFromPrimary_WhenSuccessful() {
+        AtomicBoolean primaryForced = new AtomicBoolean();
+        BDDMockito.willAnswer(invocation -> {
+            primaryForced.set(ReadWriteRoutingDataSource.isPrimaryForced());
+            return null;
+        }).given(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeCatalogSnapshot.rebuildNow();
+
+        Assertions.assertThat(primaryForced).isTrue();
+        Assertions.assertThat(ReadWriteRoutingDataSource.isPrimaryForced()).isFalse();
+    }
+
+    @Test
+    @DisplayName("rebuildNow keeps the ETag read before the query when an anime changes during the rebuild")
+    void rebuildNow_KeepsETagReadBeforeQuery_WhenAnimeChangesDuringRebuild() {
+        String eTagBefore = animeCollectionVersion.getETag();
+        BDDMockito.willAnswer(invocation -> {
+            BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("19-20-0");
+            animeCollectionVersion.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+            return null;
+        }).given(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeCatalogSnapshot.rebuildNow();
+
+        Assertions.assertThat(animeCatalogSnapshot.current().getETag())
+                .isEqualTo(eTagBefore)
+                .isNotEqualTo(animeCollectionVersion.getETag());
+    }
+
+    @Test
+    @DisplayName("rebuildNow keeps serving the previous snapshot when the rebuild fails")
+    void rebuildNow_KeepsPreviousSnapshot_WhenRebuildFails() {
+        animeCatalogSnapshot.rebuildNow();
+        AnimeCatalogSnapshot.Snapshot previous = animeCatalogSnapshot.current();
+        BDDMockito.willThrow(new IllegalStateException("database down"))
+                .given(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeCatalogSnapshot.rebuildNow();
+
+        Assertions.assertThat(animeCatalogSnapshot.current()).isSameAs(previous);
+    }
+
+    @Test
+    @DisplayName("rebuildNow keeps the previous snapshot files and deletes the older ones when successful")
+    void rebuildNow_DeletesOlderSnapshotFiles_WhenSuccessful() {
+        animeCatalogSnapshot.rebuildNow();
+        AnimeCatalogSnapshot.Snapshot oldest = animeCatalogSnapshot.current();
+        animeCatalogSnapshot.rebuildNow();
+        AnimeCatalogSnapshot.Snapshot previous = animeCatalogSnapshot.current();
+        animeCatalogSnapshot.rebuildNow();
+
+        Assertions.assertThat(oldest.getBody().getPath()).doesNotExist();
+        Assertions.assertThat(oldest.getGzipBody().getPath()).doesNotExist();
+        Assertions.assertThat(previous.getBody().getPath()).exists();
+        Assertions.assertThat(animeCatalogSnapshot.current().getBody().getPath()).exists();
+        // O mapeamento continua legível depois do arquivo apagado
+        Assertions.assertThat(oldest.getBody().getBuffer().remaining()).isEqualTo(oldest.getBody().length());
+    }
+
+    @Test
+    @DisplayName("onAnimeChanged coalesces a burst of writes into a single rebuild")
+    void onAnimeChanged_CoalescesBurstIntoSingleRebuild() throws InterruptedException {
+        animeProperties.getCatalogSnapshot().setRebuildDelay(Duration.ofMillis(100));
+
+        for (long id = 1; id <= 20; id++) animeCatalogSnapshot.onAnimeChanged(AnimeChangedEvent.deleted(id));
+        awaitSnapshot();
+        Thread.sleep(200);
+
+        BDDMockito.verify(animeServiceMock, Mockito.times(1)).streamAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("onAnimeChanged does not rebuild when the snapshot is disabled")
+    void onAnimeChanged_DoesNotRebuild_WhenSnapshotIsDisabled() throws InterruptedException {
+        animeProperties.getCatalogSnapshot().setEnabled(false);
+        animeProperties.getCatalogSnapshot().setRebuildDelay(Duration.ZERO);
+
+        animeCatalogSnapshot.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+        Thread.sleep(100);
+
+        Assertions.assertThat(animeCatalogSnapshot.current()).isNull();
+        BDDMockito.verifyNoInteractions(animeServiceMock);
+    }
+
+    private void awaitSnapshot() throws InterruptedException {
+        for (int i = 0; i < 100 && animeCatalogSnapshot.current() == null; i++) Thread.sleep(20);
+        Assertions.assertThat(animeCatalogSnapshot.current()).isNotNull();
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    private static String gunzip(ByteBuffer buffer) throws IOException {
+        byte[] compressed = new byte[buffer.remaining()];
+        buffer.get(compressed);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.gabriel.springboot2.cache;
+
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class AnimeCollectionVersionTest {
+    private AnimeRepository animeRepositoryMock;
+    private AnimeCollectionVersion animeCollectionVersion;
+
+    @BeforeEach
+    void setUp() {
+        animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("3-3-0");
+        animeCollectionVersion = new AnimeCollectionVersion(animeRepositoryMock);
+    }
+
+    @Test
+    @DisplayName("getETag returns the same ETag on another instance when the data is the same")
+    void getETag_ReturnsSameETag_WhenAnotherInstanceSeesSameData() {
+        AnimeCollectionVersion otherNode = new AnimeCollectionVersion(animeRepositoryMock);
+        // O outro nó viu outras escritas desde que subiu, mas os dados são os mesmos
+        otherNode.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+
+        Assertions.assertThat(animeCollectionVersion.getETag()).isEqualTo("\"3-3-0\"");
+        Assertions.assertThat(otherNode.getETag()).isEqualTo(animeCollectionVersion.getETag());
+        Assertions.assertThat(otherNode.getETag("-smile")).isEqualTo("\"3-3-0-smile\"");
+    }
+
+    @Test
+    @DisplayName("getETag queries the database once per generation when successful")
+    void getETag_QueriesOncePerGeneration_WhenSuccessful() {
+        animeCollectionVersion.getETag();
+        animeCollectionVersion.getETag("-cbor");
+
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("2-3-0");
+        animeCollectionVersion.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+
+        Assertions.assertThat(animeCollectionVersion.getETag()).isEqualTo("\"2-3-0\"");
+        Assertions.assertThat(animeCollectionVersion.getETag()).isEqualTo("\"2-3-0\"");
+        BDDMockito.verify(animeRepositoryMock, BDDMockito.times(2)).findCollectionFingerprint();
+    }
+
+    @Test
+    @DisplayName("getETag reads the fingerprint from the primary when it is about to be kept until the next write")
+    void getETag_ReadsFingerprintFromPrimary_WhenSuccessful() {
+        AtomicBoolean primaryForced = new AtomicBoolean();
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenAnswer(invocation -> {
+            primaryForced.set(ReadWriteRoutingDataSource.isPrimaryForced());
+            return "3-3-0";
+        });
+
+        animeCollectionVersion.getETag();
+
+        Assertions.assertThat(primaryForced).isTrue();
+        Assertions.assertThat(ReadWriteRoutingDataSource.isPrimaryForced()).isFalse();
+    }
+}
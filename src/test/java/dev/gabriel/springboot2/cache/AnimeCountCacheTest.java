@@ -0,0 +1,52 @@
+package dev.gabriel.springboot2.cache;
+
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.util.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+class AnimeCountCacheTest {
+
+    @InjectMocks
+    private AnimeCountCache animeCountCache;
+
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(animeRepositoryMock.count())
+                .thenReturn(10L);
+    }
+
+    @Test
+    @DisplayName("get counts in the database only once when successful")
+    void get_CountsInTheDatabaseOnlyOnce_WhenSuccessful() {
+        Assertions.assertThat(animeCountCache.get()).isEqualTo(10L);
+        Assertions.assertThat(animeCountCache.get()).isEqualTo(10L);
+
+        BDDMockito.verify(animeRepositoryMock, BDDMockito.times(1)).count();
+    }
+
+    @Test
+    @DisplayName("onAnimeChanged follows creates and deletes when successful")
+    void onAnimeChanged_FollowsCreatesAndDeletes_WhenSuccessful() {
+        animeCountCache.get();
+
+        animeCountCache.onAnimeChanged(AnimeChangedEvent.created(AnimeCreator.createdValidAnime()));
+        animeCountCache.onAnimeChanged(AnimeChangedEvent.created(AnimeCreator.createdValidAnime()));
+        animeCountCache.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+        animeCountCache.onAnimeChanged(AnimeChangedEvent.updated(AnimeCreator.createdValidAnime()));
+
+        Assertions.assertThat(animeCountCache.get()).isEqualTo(11L);
+    }
+}
@@ -0,0 +1,17 @@
+package dev.gabriel.springboot2.client;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AnimeLoadGeneratorTest {
+
+    @Test
+    @DisplayName("main starts the application on H2, seeds and runs the load when embedded")
+    void main_RunsLoadAgainstEmbeddedApplication_WhenEmbedded() {
+        // Token, lote do seed e leitura de dados falham com IllegalStateException
+        Assertions.assertThatCode(() -> AnimeLoadGenerator.main(new String[]{"--embedded", "--seed=50",
+                        "--concurrency=2", "--warm-up=0s", "--duration=1s"}))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,54 @@
+package dev.gabriel.springboot2.client;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class LoadGeneratorOptionsTest {
+
+    @Test
+    @DisplayName("parse returns the defaults when there are no arguments")
+    void parse_ReturnsDefaults_WhenThereAreNoArguments() {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse();
+
+        Assertions.assertThat(options.getBaseUrl()).isEqualTo("http://localhost:8080");
+        Assertions.assertThat(options.isOpenModel()).isFalse();
+        Assertions.assertThat(options.isBearer()).isTrue();
+        Assertions.assertThat(options.isEmbedded()).isFalse();
+        Assertions.assertThat(options.getMix()).containsEntry(LoadOperation.FIND_BY_ID, 50).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("parse reads every option when successful")
+    void parse_ReadsEveryOption_WhenSuccessful() {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse("--embedded", "--rps=500", "--concurrency=64",
+                "--duration=2m", "--warm-up=10s", "--mix=findById=9,save=1,delete=0", "--bearer=false", "--seed=0");
+
+        Assertions.assertThat(options.isEmbedded()).isTrue();
+        Assertions.assertThat(options.isOpenModel()).isTrue();
+        Assertions.assertThat(options.getRps()).isEqualTo(500);
+        Assertions.assertThat(options.getConcurrency()).isEqualTo(64);
+        Assertions.assertThat(options.getDuration()).isEqualTo(Duration.ofMinutes(2));
+        Assertions.assertThat(options.getWarmUp()).isEqualTo(Duration.ofSeconds(10));
+        Assertions.assertThat(options.getMix()).containsOnlyKeys(LoadOperation.FIND_BY_ID, LoadOperation.SAVE);
+        Assertions.assertThat(options.isBearer()).isFalse();
+        Assertions.assertThat(options.getSeed()).isZero();
+    }
+
+    @Test
+    @DisplayName("parse throws IllegalArgumentException when the mix has an unknown operation")
+    void parse_ThrowsIllegalArgumentException_WhenMixHasUnknownOperation() {
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> LoadGeneratorOptions.parse("--mix=findById=1,patch=1"))
+                .withMessageContaining("patch");
+    }
+
+    @Test
+    @DisplayName("parse throws IllegalArgumentException when the argument is not in the --name=value format")
+    void parse_ThrowsIllegalArgumentException_WhenArgumentHasInvalidFormat() {
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> LoadGeneratorOptions.parse("rps=10"));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.gabriel.springboot2.cluster;
+
+import dev.gabriel.springboot2.Springboot2EssentialsApplication;
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.index.AnimeNameIndex;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.service.AnimeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.BooleanSupplier;
+
+// Duas instâncias da aplicação no mesmo banco H2, como dois nós atrás de um balanceador
+class AnimeChangeLogClusterTest {
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    @DisplayName("writes on one instance reach the caches and indexes of the other instance")
+    void write_IsAppliedOnOtherInstance_WhenClusterIsEnabled() throws InterruptedException {
+        AnimeService serviceA = nodeA.getBean(AnimeService.class);
+        AnimeService serviceB = nodeB.getBean(AnimeService.class);
+        AnimeNameIndex nameIndexB = nodeB.getBean(AnimeNameIndex.class);
+        AnimeCollectionVersion versionB = nodeB.getBean(AnimeCollectionVersion.class);
+        Cache secondLevelCacheB = nodeB.getBean(EntityManagerFactory.class).getCache();
+
+        long generation = versionB.getGeneration();
+        Anime saved = serviceA.save(AnimePostRequestBody.builder().name("Kaiji").build());
+        await(() -> !nameIndexB.suggest("Kaiji", 1).isEmpty());
+        Assertions.assertThat(versionB.getGeneration()).isGreaterThan(generation);
+
+        // Coloca o anime no cache de segundo nível do nó B antes da escrita no nó A
+        Assertions.assertThat(serviceB.findByIdOrThrowBadRequestException(saved.getId()).getName()).isEqualTo("Kaiji");
+        Assertions.assertThat(secondLevelCacheB.contains(Anime.class, saved.getId())).isTrue();
+
+        serviceA.replace(AnimePutRequestBody.builder().id(saved.getId()).name("Akagi").build());
+        // O poller tira o anime do cache antes de publicar o evento, então o índice é esperado à parte
+        await(() -> !secondLevelCacheB.contains(Anime.class, saved.getId()));
+        await(() -> nameIndexB.suggest("Kaiji", 1).isEmpty());
+        Assertions.assertThat(serviceB.findByIdOrThrowBadRequestException(saved.getId()).getName()).isEqualTo("Akagi");
+        Assertions.assertThat(nameIndexB.suggest("Akagi", 1)).isNotEmpty();
+
+        serviceA.delete(saved.getId());
+        await(() -> nameIndexB.suggest("Akagi", 1).isEmpty());
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> serviceB.findByIdOrThrowBadRequestException(saved.getId()));
+
+        MeterRegistry meterRegistryB = nodeB.getBean(MeterRegistry.class);
+        Assertions.assertThat(meterRegistryB.get(AnimeChangeLogPoller.METRIC + ".lag").timer().count()).isEqualTo(3);
+        MeterRegistry meterRegistryA = nodeA.getBean(MeterRegistry.class);
+        Assertions.assertThat(meterRegistryA.get(AnimeChangeLogPoller.METRIC + ".applied").counter().count()).isZero();
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--anime.cluster.enabled=true",
+                "--anime.cluster.node-id=" + nodeId,
+                "--anime.cluster.poll-interval=50ms",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=info");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 250 && !condition.getAsBoolean(); i++) Thread.sleep(20);
+        Assertions.assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,162 @@
+package dev.gabriel.springboot2.cluster;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.domain.AnimeChangeLog;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeChangeLogRepository;
+import dev.gabriel.springboot2.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class AnimeChangeLogPollerTest {
+    private static final String OTHER_NODE = "other-node";
+
+    // O que já foi confirmado no anime_change_log, por seq
+    private final TreeMap<Long, AnimeChangeLog> committed = new TreeMap<>();
+    private final MutableClock clock = new MutableClock(Instant.parse("2022-01-10T10:00:00Z"));
+    private AnimeProperties animeProperties;
+    private Cache secondLevelCacheMock;
+    private ApplicationEventPublisher eventPublisherMock;
+    private SimpleMeterRegistry meterRegistry;
+    private AnimeChangeLogPoller animeChangeLogPoller;
+
+    @BeforeEach
+    void setUp() {
+        AnimeChangeLogRepository animeChangeLogRepositoryMock = Mockito.mock(AnimeChangeLogRepository.class);
+        BDDMockito.when(animeChangeLogRepositoryMock.findMaxSeq()).thenReturn(0L);
+        BDDMockito.when(animeChangeLogRepositoryMock.findPageAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> committed.tailMap(invocation.<Long>getArgument(0), false).values().stream()
+                        .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                        .collect(Collectors.toList()));
+        BDDMockito.when(animeChangeLogRepositoryMock.findBySeqIn(ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(committed::containsKey)
+                        .map(committed::get)
+                        .collect(Collectors.toList()));
+
+        secondLevelCacheMock = Mockito.mock(Cache.class);
+        EntityManagerFactory entityManagerFactoryMock = Mockito.mock(EntityManagerFactory.class);
+        BDDMockito.when(entityManagerFactoryMock.getCache()).thenReturn(secondLevelCacheMock);
+        eventPublisherMock = Mockito.mock(ApplicationEventPublisher.class);
+
+        animeProperties = new AnimeProperties();
+        animeProperties.getCluster().setBatchSize(2);
+        // Só a chamada manual do poll neste teste
+        animeProperties.getCluster().setPollInterval(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+        animeChangeLogPoller = new AnimeChangeLogPoller(animeChangeLogRepositoryMock, eventPublisherMock,
+                entityManagerFactoryMock, animeProperties, clock, meterRegistry);
+        animeChangeLogPoller.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        animeChangeLogPoller.destroy();
+    }
+
+    @Test
+    @DisplayName("poll evicts and republishes every change of other instances in batches")
+    void poll_AppliesChangesOfOtherInstances_WhenLogHasNewRows() {
+        commit(1, 10, AnimeChangeLog.Operation.CREATED, OTHER_NODE);
+        commit(2, 11, AnimeChangeLog.Operation.UPDATED, OTHER_NODE);
+        commit(3, 12, AnimeChangeLog.Operation.DELETED, OTHER_NODE);
+        clock.advance(Duration.ofMillis(300));
+
+        animeChangeLogPoller.poll();
+
+        Assertions.assertThat(publishedEvents()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(
+                        AnimeChangedEvent.remote(AnimeChangedEvent.Type.CREATED, 10, "Anime 10"),
+                        AnimeChangedEvent.remote(AnimeChangedEvent.Type.UPDATED, 11, "Anime 11"),
+                        AnimeChangedEvent.remote(AnimeChangedEvent.Type.DELETED, 12, "Anime 12"));
+        Mockito.verify(secondLevelCacheMock).evict(Anime.class, 10L);
+        Mockito.verify(secondLevelCacheMock).evict(Anime.class, 11L);
+        Mockito.verify(secondLevelCacheMock).evict(Anime.class, 12L);
+        Assertions.assertThat(meterRegistry.get(AnimeChangeLogPoller.METRIC + ".lag").timer().max(TimeUnit.MILLISECONDS))
+                .isEqualTo(300);
+        Assertions.assertThat(meterRegistry.get(AnimeChangeLogPoller.METRIC + ".applied").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("poll skips the changes written by this instance")
+    void poll_SkipsOwnChanges_WhenRowWasWrittenByThisInstance() {
+        commit(1, 10, AnimeChangeLog.Operation.CREATED, animeProperties.getCluster().getNodeId());
+
+        animeChangeLogPoller.poll();
+
+        Mockito.verifyNoInteractions(eventPublisherMock, secondLevelCacheMock);
+    }
+
+    @Test
+    @DisplayName("poll applies a change committed late when its seq was skipped by an earlier poll")
+    void poll_AppliesLateChange_WhenSeqWasSkipped() {
+        // O seq 1 foi reservado por uma transação que ainda não confirmou
+        commit(2, 11, AnimeChangeLog.Operation.UPDATED, OTHER_NODE);
+        animeChangeLogPoller.poll();
+        Assertions.assertThat(meterRegistry.get(AnimeChangeLogPoller.METRIC + ".gaps").gauge().value()).isEqualTo(1);
+
+        commit(1, 10, AnimeChangeLog.Operation.UPDATED, OTHER_NODE);
+        animeChangeLogPoller.poll();
+
+        Assertions.assertThat(publishedEvents()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(
+                        AnimeChangedEvent.remote(AnimeChangedEvent.Type.UPDATED, 11, "Anime 11"),
+                        AnimeChangedEvent.remote(AnimeChangedEvent.Type.UPDATED, 10, "Anime 10"));
+        Assertions.assertThat(meterRegistry.get(AnimeChangeLogPoller.METRIC + ".gaps").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("poll stops looking for a skipped seq when the gap timeout passes")
+    void poll_ForgetsSkippedSeq_WhenGapTimeoutPasses() {
+        commit(2, 11, AnimeChangeLog.Operation.UPDATED, OTHER_NODE);
+        animeChangeLogPoller.poll();
+
+        clock.advance(animeProperties.getCluster().getGapTimeout().plusMillis(1));
+        animeChangeLogPoller.poll();
+        commit(1, 10, AnimeChangeLog.Operation.UPDATED, OTHER_NODE);
+        animeChangeLogPoller.poll();
+
+        Assertions.assertThat(publishedEvents())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(AnimeChangedEvent.remote(AnimeChangedEvent.Type.UPDATED, 11, "Anime 11"));
+        Assertions.assertThat(meterRegistry.get(AnimeChangeLogPoller.METRIC + ".gaps").gauge().value()).isZero();
+    }
+
+    private void commit(long seq, long animeId, AnimeChangeLog.Operation operation, String nodeId) {
+        committed.put(seq, AnimeChangeLog.builder()
+                .seq(seq)
+                .animeId(animeId)
+                .operation(operation)
+                .name("Anime " + animeId)
+                .nodeId(nodeId)
+                .createdAt(clock.instant())
+                .build());
+    }
+
+    private List<Object> publishedEvents() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(eventPublisherMock, Mockito.atLeast(0)).publishEvent(events.capture());
+        return events.getAllValues();
+    }
+}
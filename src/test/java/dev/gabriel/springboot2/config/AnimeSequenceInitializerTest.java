@@ -0,0 +1,47 @@
+package dev.gabriel.springboot2.config;
+
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+@DataJpaTest
+@Import(AnimeSequenceInitializer.class)
+// O ALTER SEQUENCE confirma a transação no H2, então o teste roda sem a transação do @DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Tests for Anime Sequence Initializer")
+class AnimeSequenceInitializerTest {
+    @Autowired
+    private AnimeSequenceInitializer animeSequenceInitializer;
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        animeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("afterPropertiesSet moves the sequence past ids created before it existed")
+    void afterPropertiesSet_MovesSequencePastExistingIds_WhenTableHasRowsFromIdentity() {
+        // Linha de quando o id era IDENTITY, fora da sequence
+        new JdbcTemplate(dataSource).update("insert into anime (id, name, version) values (1000, 'Hellsing', 0)");
+
+        animeSequenceInitializer.afterPropertiesSet();
+        Anime saved = animeRepository.save(Anime.builder().name("Overlord").build());
+
+        Assertions.assertThat(saved.getId()).isEqualTo(1001);
+    }
+}
@@ -0,0 +1,111 @@
+package dev.gabriel.springboot2.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.util.AnimeMediaTypes;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class BinaryFormatsConfigTest {
+    private static final String USER = "Basic " + HttpHeaders.encodeBasicAuth("devdojo", "academy", StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    private Anime anime;
+
+    @BeforeEach
+    void setUp() {
+        anime = animeRepository.save(Anime.builder().name("Naruto").build());
+    }
+
+    // Sem a transação do teste cada anime fica no banco, e o findByName acharia os dos outros testes
+    @AfterEach
+    void tearDown() {
+        animeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("findById returns json when no format is accepted")
+    void findById_ReturnsJson_WhenNoFormatIsAccepted() throws Exception {
+        mockMvc.perform(get("/animes/{id}", anime.getId()).header(HttpHeaders.AUTHORIZATION, USER))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    @DisplayName("findById returns smile when smile is accepted")
+    void findById_ReturnsSmile_WhenSmileIsAccepted() throws Exception {
+        JsonNode body = request("/animes/" + anime.getId(), AnimeMediaTypes.SMILE, new ObjectMapper(new SmileFactory()));
+
+        Assertions.assertThat(body.get("name").asText()).isEqualTo("Naruto");
+    }
+
+    @Test
+    @DisplayName("findByName returns cbor when cbor is accepted")
+    void findByName_ReturnsCbor_WhenCborIsAccepted() throws Exception {
+        JsonNode body = request("/animes/find?name=Naruto", AnimeMediaTypes.CBOR, new ObjectMapper(new CBORFactory()));
+
+        Assertions.assertThat(body.get(0).get("id").asLong()).isEqualTo(anime.getId());
+    }
+
+    @Test
+    @DisplayName("findById returns the not found error in smile when smile is accepted")
+    void findById_ReturnsNotFoundErrorInSmile_WhenSmileIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/animes/{id}", anime.getId() + 1)
+                        .header(HttpHeaders.AUTHORIZATION, USER).accept(AnimeMediaTypes.SMILE))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(AnimeMediaTypes.SMILE))
+                .andReturn();
+
+        JsonNode body = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        Assertions.assertThat(body.get("details").asText()).isEqualTo(AnimeNotFoundException.MESSAGE);
+        Assertions.assertThat(body.get("developerMessage").asText()).isEqualTo(AnimeNotFoundException.class.getName());
+    }
+
+    @Test
+    @DisplayName("findById returns the not found error in json when no format is accepted")
+    void findById_ReturnsNotFoundErrorInJson_WhenNoFormatIsAccepted() throws Exception {
+        mockMvc.perform(get("/animes/{id}", anime.getId() + 1).header(HttpHeaders.AUTHORIZATION, USER))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    private JsonNode request(String url, MediaType mediaType, ObjectMapper reader) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, USER).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn();
+
+        return reader.readTree(result.getResponse().getContentAsByteArray());
+    }
+}
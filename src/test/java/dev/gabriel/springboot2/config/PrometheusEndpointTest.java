@@ -0,0 +1,70 @@
+package dev.gabriel.springboot2.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Mantém o pool do Hikari (o @AutoConfigureTestDatabase troca o DataSource e as métricas do pool somem)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prometheus;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "logging.level.org.hibernate.SQL=info"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusEndpointTest {
+    private static final String ADMIN = basic("gabriel");
+    private static final String USER = basic("devdojo");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("prometheus returns endpoint, service, connection pool and hibernate metrics when user is admin")
+    void prometheus_ReturnsMetrics_WhenUserIsAdmin() throws Exception {
+        mockMvc.perform(get("/animes/find").param("name", "Naruto").header(HttpHeaders.AUTHORIZATION, USER))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/animes/find\"")))
+                .andExpect(content().string(containsString("anime_service_seconds{")))
+                .andExpect(content().string(containsString("method=\"findByName\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending{")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total{")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total{")));
+    }
+
+    @Test
+    @DisplayName("prometheus returns forbidden when user is not admin")
+    void prometheus_ReturnsForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, USER))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("prometheus returns unauthorized when there are no credentials")
+    void prometheus_ReturnsUnauthorized_WhenThereAreNoCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static String basic(String username) {
+        return "Basic " + HttpHeaders.encodeBasicAuth(username, "academy", StandardCharsets.UTF_8);
+    }
+}
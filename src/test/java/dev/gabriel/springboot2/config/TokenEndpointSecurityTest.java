@@ -0,0 +1,84 @@
+package dev.gabriel.springboot2.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.responses.TokenResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:token;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "logging.level.org.hibernate.SQL=info"})
+@AutoConfigureMockMvc
+class TokenEndpointSecurityTest {
+    private static final String USER = "Basic " + HttpHeaders.encodeBasicAuth("devdojo", "academy", StandardCharsets.UTF_8);
+    private static final String ADMIN = "Basic " + HttpHeaders.encodeBasicAuth("gabriel", "academy", StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("token returns a token that authenticates the other endpoints when user sends basic credentials")
+    void token_ReturnsToken_WhenUserSendsBasicCredentials() throws Exception {
+        String bearer = bearer(issueToken(USER));
+
+        mockMvc.perform(get("/animes/find").param("name", "Naruto").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("token returns unauthorized when user sends a bearer token instead of basic credentials")
+    void token_ReturnsUnauthorized_WhenUserSendsBearerToken() throws Exception {
+        String bearer = bearer(issueToken(USER));
+
+        mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("token keeps the ADMIN role for @PreAuthorize endpoints when admin sends basic credentials")
+    void token_KeepsAdminRole_WhenAdminSendsBasicCredentials() throws Exception {
+        String bearer = bearer(issueToken(ADMIN));
+
+        mockMvc.perform(post("/animes").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Naruto\"}")
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("token returns unauthorized when there are no credentials")
+    void token_ReturnsUnauthorized_WhenThereAreNoCredentials() throws Exception {
+        mockMvc.perform(post("/auth/token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private TokenResponse issueToken(String credentials) throws Exception {
+        String body = mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, credentials))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenResponse token = objectMapper.readValue(body, TokenResponse.class);
+        Assertions.assertThat(token.getAccessToken()).isNotBlank();
+        return token;
+    }
+
+    private static String bearer(TokenResponse token) {
+        return "Bearer " + token.getAccessToken();
+    }
+}
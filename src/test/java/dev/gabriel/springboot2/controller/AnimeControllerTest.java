@@ -1,8 +1,19 @@
 package dev.gabriel.springboot2.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.index.AnimeNameIndex;
+import dev.gabriel.springboot2.index.AnimeTrigramIndex;
 import dev.gabriel.springboot2.requests.AnimePostRequestBody;
 import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import dev.gabriel.springboot2.responses.AnimeLookupResponse;
+import dev.gabriel.springboot2.responses.AnimeCursorPage;
+import dev.gabriel.springboot2.responses.AnimeSuggestion;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.service.AnimeBatchService;
+import dev.gabriel.springboot2.service.AnimeReadCoalescer;
 import dev.gabriel.springboot2.service.AnimeService;
 import dev.gabriel.springboot2.util.AnimeCreator;
 import dev.gabriel.springboot2.util.AnimePostRequestBodyCreator;
@@ -16,14 +27,24 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
@@ -36,29 +57,82 @@ class AnimeControllerTest {
     @Mock
     private AnimeService animeServiceMock;
 
+    @Mock
+    private AnimeReadCoalescer animeReadCoalescerMock;
+
+    @Mock
+    private AnimeBatchService animeBatchServiceMock;
+
+    @Mock
+    private AnimeNameIndex animeNameIndexMock;
+
+    @Mock
+    private AnimeTrigramIndex animeTrigramIndexMock;
+
+    // Objeto real, pois o controller usa para escrever o streaming
+    @Spy
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void setUp() {
-        PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createdValidAnime()));
+        PageImpl<AnimeView> animePage = new PageImpl<>(List.of(AnimeCreator.createdValidAnimeView()));
 
         // BDDMockito Cria compotamentos para os métodos do  animeService
         BDDMockito.when(animeServiceMock.listAll(ArgumentMatchers.any()))
                 .thenReturn(animePage);
 
+        BDDMockito.when(animeServiceMock.listAllAsSlice(ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createdValidAnimeView())));
+
+        BDDMockito.when(animeServiceMock.countApproximately())
+                .thenReturn(1L);
+
+        BDDMockito.when(animeServiceMock.listAfter(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(AnimeCursorPage.builder()
+                        .content(List.of(AnimeCreator.createdValidAnime()))
+                        .size(1)
+                        .nextCursor("next")
+                        .build());
+
         BDDMockito.when(animeServiceMock.listAllNonPageable())
                 .thenReturn(List.of(AnimeCreator.createdValidAnime()));
 
-        BDDMockito.when(animeServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+        BDDMockito.when(animeReadCoalescerMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
                 .thenReturn(AnimeCreator.createdValidAnime());
 
-        BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
-                .thenReturn(List.of(AnimeCreator.createdValidAnime()));
+        BDDMockito.when(animeReadCoalescerMock.findByName(ArgumentMatchers.anyString()))
+                .thenReturn(List.of(AnimeCreator.createdValidAnimeView()));
 
         BDDMockito.when(animeServiceMock.save(ArgumentMatchers.any(AnimePostRequestBody.class)))
                 .thenReturn(AnimeCreator.createdValidAnime());
 
+        BDDMockito.when(animeTrigramIndexMock.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(1L));
+
+        BDDMockito.when(animeServiceMock.findAllByIdInOrder(List.of(1L)))
+                .thenReturn(List.of(AnimeCreator.createdValidAnime()));
+
+        BDDMockito.when(animeServiceMock.lookup(ArgumentMatchers.anyList()))
+                .thenReturn(AnimeLookupResponse.builder()
+                        .content(List.of(AnimeCreator.createdValidAnime()))
+                        .missing(List.of(2L))
+                        .build());
+
+        BDDMockito.when(animeNameIndexMock.suggest(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(new AnimeSuggestion(1L, AnimeCreator.createdValidAnime().getName())));
+
+        BDDMockito.when(animeBatchServiceMock.saveAll(ArgumentMatchers.anyList()))
+                .thenReturn(AnimeBatchResponse.builder().created(1).build());
+
         BDDMockito.doNothing().when(animeServiceMock).replace(ArgumentMatchers.any(AnimePutRequestBody.class));
 
         BDDMockito.doNothing().when(animeServiceMock).delete(ArgumentMatchers.anyLong());
+
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<Anime> action = invocation.getArgument(0);
+            action.accept(AnimeCreator.createdValidAnime());
+            return null;
+        }).when(animeServiceMock).streamAll(ArgumentMatchers.any());
     }
 
     @Test
@@ -66,7 +140,7 @@ class AnimeControllerTest {
     void list_ReturnsListOfAnimeInsidePageObject_WhenSuccessful() {
         String expectedName = AnimeCreator.createdValidAnime().getName();
 
-        Page<Anime> animePage = animeController.list(null).getBody();
+        Page<AnimeView> animePage = animeController.list(null).getBody();
 
         Assertions.assertThat(animePage).isNotNull();
 
@@ -77,6 +151,27 @@ class AnimeControllerTest {
         Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("listSlice returns slice of anime with approximate total when successful")
+    void listSlice_ReturnsSliceOfAnimeWithApproximateTotal_WhenSuccessful() {
+        ResponseEntity<Slice<AnimeView>> entity = animeController.listSlice(null);
+
+        Assertions.assertThat(entity.getHeaders().getFirst(AnimeController.TOTAL_COUNT_HEADER)).isEqualTo("1");
+
+        Assertions.assertThat(entity.getBody()).isNotNull();
+        Assertions.assertThat(entity.getBody().getContent()).containsExactly(AnimeCreator.createdValidAnimeView());
+    }
+
+    @Test
+    @DisplayName("listAfter returns cursor page of anime when successful")
+    void listAfter_ReturnsCursorPageOfAnime_WhenSuccessful() {
+        AnimeCursorPage page = animeController.listAfter("", 1).getBody();
+
+        Assertions.assertThat(page).isNotNull();
+        Assertions.assertThat(page.getContent()).containsExactly(AnimeCreator.createdValidAnime());
+        Assertions.assertThat(page.getNextCursor()).isEqualTo("next");
+    }
+
     @Test
     @DisplayName("ListAll returns list of anime inside page object when successful")
     void listAll_ReturnsListOfAnime_WhenSuccessful() {
@@ -92,6 +187,39 @@ class AnimeControllerTest {
         Assertions.assertThat(animes.get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("streamAll writes animes as json array when successful")
+    void streamAll_WritesJsonArray_WhenSuccessful() throws Exception {
+        ResponseEntity<StreamingResponseBody> entity = animeController.streamAll(null);
+
+        Assertions.assertThat(entity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.getBody().writeTo(outputStream);
+
+        Anime[] animes = objectMapper.readValue(outputStream.toByteArray(), Anime[].class);
+
+        Assertions.assertThat(animes)
+                .hasSize(1)
+                .containsExactly(AnimeCreator.createdValidAnime());
+    }
+
+    @Test
+    @DisplayName("streamAll writes one anime per line when ndjson is accepted")
+    void streamAll_WritesNdjson_WhenNdjsonIsAccepted() throws Exception {
+        ResponseEntity<StreamingResponseBody> entity = animeController.streamAll(MediaType.APPLICATION_NDJSON_VALUE);
+
+        Assertions.assertThat(entity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.getBody().writeTo(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        Assertions.assertThat(lines).hasSize(1);
+        Assertions.assertThat(objectMapper.readValue(lines[0], Anime.class)).isEqualTo(AnimeCreator.createdValidAnime());
+    }
+
     @Test
     @DisplayName("FindById returns anime when successful")
     void findById_ReturnsAnime_WhenSuccessful() {
@@ -100,13 +228,45 @@ class AnimeControllerTest {
 
         Long expectedId = AnimeCreator.createdValidAnime().getId();
 
-        Anime anime = animeController.findById(1).getBody();
+        Anime anime = animeController.findById(1, null).getBody();
 
         Assertions.assertThat(anime.getId())
                 .isNotNull()
                 .isEqualTo(expectedId);
     }
 
+    @Test
+    @DisplayName("FindById returns the anime version as ETag when successful")
+    void findById_ReturnsVersionAsETag_WhenSuccessful() {
+        Anime anime = AnimeCreator.createdValidAnime();
+        anime.setVersion(3L);
+        anime.setUpdatedAt(LocalDateTime.of(2022, 1, 10, 12, 0));
+        BDDMockito.when(animeReadCoalescerMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+                .thenReturn(anime);
+
+        ResponseEntity<Anime> entity = animeController.findById(1, null);
+
+        Assertions.assertThat(entity.getHeaders().getETag()).isEqualTo("\"1-3\"");
+        Assertions.assertThat(entity.getHeaders().getLastModified()).isPositive();
+        Assertions.assertThat(entity.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    @DisplayName("FindById returns a different ETag for each format when a binary format is accepted")
+    void findById_ReturnsETagPerFormat_WhenBinaryFormatIsAccepted() {
+        Anime anime = AnimeCreator.createdValidAnime();
+        anime.setVersion(3L);
+        BDDMockito.when(animeReadCoalescerMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+                .thenReturn(anime);
+
+        Assertions.assertThat(animeController.findById(1, "application/x-jackson-smile").getHeaders().getETag())
+                .isEqualTo("\"1-3-smile\"");
+        Assertions.assertThat(animeController.findById(1, "application/cbor").getHeaders().getETag())
+                .isEqualTo("\"1-3-cbor\"");
+        Assertions.assertThat(animeController.findById(1, "application/json, application/cbor;q=0.5").getHeaders().getETag())
+                .isEqualTo("\"1-3\"");
+    }
+
     @Test
     @DisplayName("findByName returns list of animes when successful")
     void findByName_ReturnsListOfAnimes_WhenSuccessful() {
@@ -114,7 +274,7 @@ class AnimeControllerTest {
         String expectedName = AnimeCreator.createdValidAnime().getName();
 
         // Aqui o valor passado não importa, pois o valor do findByName retornado está sendo criado a partir do mockito
-        List<Anime> animes = animeController.findByName("anime").getBody();
+        List<AnimeView> animes = animeController.findByName("anime").getBody();
 
         Assertions.assertThat(animes)
                 .isNotNull();
@@ -126,16 +286,62 @@ class AnimeControllerTest {
     @DisplayName("findByName returns an empty list when successful")
     void findByName_ReturnsEmptyList_WhenAnimeIsNotFound() {
         // Quando você coloca esse compotamento dentro do método, ele tem preferência ao declarado no @BeforeEach
-        BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
+        BDDMockito.when(animeReadCoalescerMock.findByName(ArgumentMatchers.anyString()))
                 .thenReturn(Collections.emptyList());
 
-        List<Anime> animes = animeController.findByName("algum nome").getBody();
+        List<AnimeView> animes = animeController.findByName("algum nome").getBody();
 
         Assertions.assertThat(animes)
                 .isNotNull()
                 .isEmpty();
     }
 
+    @Test
+    @DisplayName("findByNameFuzzy returns the animes found by the trigram index when successful")
+    void findByNameFuzzy_ReturnsAnimesFoundByTrigramIndex_WhenSuccessful() {
+        List<Anime> animes = animeController.findByNameFuzzy("Hajime no Ipo", 10).getBody();
+
+        Assertions.assertThat(animes).containsExactly(AnimeCreator.createdValidAnime());
+    }
+
+    @Test
+    @DisplayName("lookup returns the animes found and the missing ids when successful")
+    void lookup_ReturnsAnimesAndMissingIds_WhenSuccessful() {
+        AnimeLookupResponse response = animeController.lookup(List.of(1L, 2L)).getBody();
+
+        Assertions.assertThat(response).isNotNull();
+        Assertions.assertThat(response.getContent()).containsExactly(AnimeCreator.createdValidAnime());
+        Assertions.assertThat(response.getMissing()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("lookupAll returns the animes found and the missing ids when successful")
+    void lookupAll_ReturnsAnimesAndMissingIds_WhenSuccessful() {
+        AnimeLookupResponse response = animeController.lookupAll(List.of(1L, 2L)).getBody();
+
+        Assertions.assertThat(response).isNotNull();
+        Assertions.assertThat(response.getContent()).containsExactly(AnimeCreator.createdValidAnime());
+        Assertions.assertThat(response.getMissing()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("suggest returns suggestions from the name index when successful")
+    void suggest_ReturnsSuggestionsFromNameIndex_WhenSuccessful() {
+        List<AnimeSuggestion> suggestions = animeController.suggest("haj", 10).getBody();
+
+        Assertions.assertThat(suggestions)
+                .isNotNull()
+                .extracting(AnimeSuggestion::getName)
+                .containsExactly(AnimeCreator.createdValidAnime().getName());
+    }
+
+    @Test
+    @DisplayName("suggest throws BadRequestException when limit is out of range")
+    void suggest_ThrowsBadRequestException_WhenLimitIsOutOfRange() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeController.suggest("haj", AnimeController.MAX_SUGGESTIONS + 1));
+    }
+
     @Test
     @DisplayName("save returns an anime when successful")
     void save_ReturnsAnime_WhenSuccessful() {
@@ -145,6 +351,16 @@ class AnimeControllerTest {
         Assertions.assertThat(animeSaved).isEqualTo(AnimeCreator.createdValidAnime());
     }
 
+    @Test
+    @DisplayName("saveAll returns the batch report when successful")
+    void saveAll_ReturnsBatchReport_WhenSuccessful() {
+        ResponseEntity<AnimeBatchResponse> entity = animeController.saveAll(
+                List.of(AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody()));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(entity.getBody().getCreated()).isEqualTo(1);
+    }
+
     @Test
     @DisplayName("replace updates anime when successful")
     void replace_UpdatesAnime_WhenSuccessful() {
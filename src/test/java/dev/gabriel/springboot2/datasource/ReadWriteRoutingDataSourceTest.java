@@ -0,0 +1,212 @@
+package dev.gabriel.springboot2.datasource;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ReadWriteRoutingDataSourceTest {
+    private AnimeProperties.Routing routing;
+    private SwitchableDataSource replica0;
+    private SwitchableDataSource replica1;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    // Réplica que pode ser derrubada no meio do teste
+    private static class SwitchableDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException("Connection refused");
+            return super.getConnection();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        routing = new AnimeProperties.Routing();
+        routing.setEnabled(true);
+        routing.setReadYourWritesWindow(Duration.ofSeconds(10));
+
+        replica0 = new SwitchableDataSource(node("replica-0"));
+        replica1 = new SwitchableDataSource(node("replica-1"));
+        createRoutingDataSource();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("getConnection returns a primary connection when the transaction is not read only")
+    void getConnection_ReturnsPrimary_WhenTransactionIsNotReadOnly() {
+        Assertions.assertThat(write()).isEqualTo("primary");
+        Assertions.assertThat(write()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("getConnection alternates between the replicas when the transaction is read only")
+    void getConnection_AlternatesBetweenReplicas_WhenTransactionIsReadOnly() {
+        Assertions.assertThat(readSeveralTimes(4)).containsExactly("replica-0", "replica-1", "replica-0", "replica-1");
+    }
+
+    @Test
+    @DisplayName("getConnection picks a replica when selection is least loaded")
+    void getConnection_PicksReplica_WhenSelectionIsLeastLoaded() {
+        routing.setSelection(AnimeProperties.ReplicaSelection.LEAST_LOADED);
+
+        Assertions.assertThat(readSeveralTimes(4)).containsOnly("replica-0", "replica-1");
+    }
+
+    @Test
+    @DisplayName("getConnection returns a primary connection for reads when the same user wrote within the window")
+    void getConnection_ReturnsPrimaryForReads_WhenSameUserWroteWithinWindow() {
+        authenticateAs("gabriel");
+        write();
+
+        Assertions.assertThat(read()).isEqualTo("primary");
+
+        authenticateAs("devdojo");
+        Assertions.assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    @DisplayName("getConnection returns a replica connection for reads when the write window expired")
+    void getConnection_ReturnsReplicaForReads_WhenWriteWindowExpired() throws InterruptedException {
+        routing.setReadYourWritesWindow(Duration.ofMillis(50));
+        authenticateAs("gabriel");
+        write();
+
+        Thread.sleep(100);
+
+        Assertions.assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    @DisplayName("getConnection ignores the write window when the write transaction rolls back")
+    void getConnection_IgnoresWriteWindow_WhenWriteRollsBack() {
+        authenticateAs("gabriel");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            currentNode();
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    @DisplayName("getConnection returns a primary connection for reads when the thread forced the primary")
+    void getConnection_ReturnsPrimaryForReads_WhenPrimaryIsForced() {
+        boolean previous = ReadWriteRoutingDataSource.forcePrimary(true);
+        try {
+            Assertions.assertThat(readSeveralTimes(2)).containsOnly("primary");
+        } finally {
+            ReadWriteRoutingDataSource.forcePrimary(previous);
+        }
+
+        Assertions.assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    @DisplayName("getConnection skips a replica when it fails to connect")
+    void getConnection_SkipsReplica_WhenItFailsToConnect() {
+        replica0.down = true;
+
+        Assertions.assertThat(readSeveralTimes(4)).containsExactly("primary", "replica-1", "replica-1", "replica-1");
+    }
+
+    @Test
+    @DisplayName("getConnection returns a primary connection for reads when every replica is down")
+    void getConnection_ReturnsPrimaryForReads_WhenEveryReplicaIsDown() {
+        replica0.down = true;
+        replica1.down = true;
+
+        Assertions.assertThat(readSeveralTimes(3)).containsOnly("primary");
+    }
+
+    @Test
+    @DisplayName("checkHealth puts a replica back in the selection when it is reachable again")
+    void checkHealth_PutsReplicaBack_WhenItIsReachableAgain() {
+        replica0.down = true;
+        routingDataSource.checkHealth();
+        Assertions.assertThat(readSeveralTimes(2)).containsOnly("replica-1");
+
+        replica0.down = false;
+        routingDataSource.checkHealth();
+
+        Assertions.assertThat(readSeveralTimes(2)).containsExactlyInAnyOrder("replica-0", "replica-1");
+    }
+
+    private void createRoutingDataSource() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica0);
+        replicas.put("replica-1", replica1);
+        routingDataSource = new ReadWriteRoutingDataSource(node("primary"), replicas, routing);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    // Cada banco H2 em memória guarda o próprio nome, assim dá para saber quem respondeu
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node(name varchar(20))");
+        jdbcTemplate.execute("delete from node");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private String write() {
+        return new TransactionTemplate(transactionManager).execute(status -> currentNode());
+    }
+
+    private String read() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> currentNode());
+    }
+
+    private List<String> readSeveralTimes(int times) {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < times; i++) nodes.add(read());
+        return nodes;
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(username, "academy"));
+    }
+}
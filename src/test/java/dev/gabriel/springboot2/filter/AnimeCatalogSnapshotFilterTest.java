@@ -0,0 +1,172 @@
+package dev.gabriel.springboot2.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gabriel.springboot2.cache.AnimeCatalogSnapshot;
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.service.AnimeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+class AnimeCatalogSnapshotFilterTest {
+    private AnimeCollectionVersion animeCollectionVersion;
+    private AnimeProperties animeProperties;
+    private AnimeCatalogSnapshot animeCatalogSnapshot;
+    private AnimeCatalogSnapshotFilter filter;
+    private AtomicInteger controllerCalls;
+    private String json;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Anime> animes = LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> Anime.builder().id(id).name("Hajime no Ippo " + id).build())
+                .collect(Collectors.toList());
+        AnimeService animeServiceMock = Mockito.mock(AnimeService.class);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Anime> action = invocation.getArgument(0);
+            animes.forEach(action);
+            return null;
+        }).given(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        json = objectMapper.writeValueAsString(animes);
+        AnimeRepository animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("20-20-0");
+        animeCollectionVersion = new AnimeCollectionVersion(animeRepositoryMock);
+        animeProperties = new AnimeProperties();
+        animeCatalogSnapshot = new AnimeCatalogSnapshot(animeServiceMock, animeCollectionVersion, objectMapper, animeProperties);
+        animeCatalogSnapshot.afterPropertiesSet();
+        filter = new AnimeCatalogSnapshotFilter(animeCatalogSnapshot, animeProperties);
+        controllerCalls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        animeCatalogSnapshot.destroy();
+    }
+
+    @Test
+    @DisplayName("doFilter serves the snapshot without calling the controller when it is ready")
+    void doFilter_ServesSnapshot_WhenItIsReady() throws Exception {
+        animeCatalogSnapshot.rebuildNow();
+
+        MockHttpServletResponse response = perform(get());
+
+        Assertions.assertThat(controllerCalls).hasValue(0);
+        Assertions.assertThat(response.getContentAsString()).isEqualTo(json);
+        Assertions.assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        Assertions.assertThat(response.getContentLength()).isEqualTo(json.length());
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(animeCollectionVersion.getETag());
+        Assertions.assertThat(response.getHeaderValues(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    @DisplayName("doFilter serves the gzip variant when the client accepts gzip")
+    void doFilter_ServesGzipVariant_WhenClientAcceptsGzip() throws Exception {
+        animeCatalogSnapshot.rebuildNow();
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        Assertions.assertThat(response.getContentLength()).isLessThan(json.length());
+        Assertions.assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("doFilter answers 304 when the client already has the snapshot version")
+    void doFilter_Answers304_WhenClientHasSnapshotVersion() throws Exception {
+        animeCatalogSnapshot.rebuildNow();
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCatalogSnapshot.current().getETag());
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        Assertions.assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    @DisplayName("doFilter hands the file to the container without writing the body when sendfile is supported")
+    void doFilter_HandsFileToContainer_WhenSendfileIsSupported() throws Exception {
+        animeCatalogSnapshot.rebuildNow();
+        MockHttpServletRequest request = get();
+        request.setAttribute(AnimeCatalogSnapshotFilter.SENDFILE_SUPPORTED, Boolean.TRUE);
+
+        MockHttpServletResponse response = perform(request);
+
+        AnimeCatalogSnapshot.Body body = animeCatalogSnapshot.current().getBody();
+        Assertions.assertThat(response.getContentAsByteArray()).isEmpty();
+        Assertions.assertThat(response.getContentLength()).isEqualTo(json.length());
+        Assertions.assertThat(request.getAttribute(AnimeCatalogSnapshotFilter.SENDFILE_FILENAME))
+                .isEqualTo(body.getPath().toAbsolutePath().toString());
+        Assertions.assertThat(request.getAttribute(AnimeCatalogSnapshotFilter.SENDFILE_START)).isEqualTo(0L);
+        Assertions.assertThat(request.getAttribute(AnimeCatalogSnapshotFilter.SENDFILE_END)).isEqualTo(body.length());
+    }
+
+    @Test
+    @DisplayName("doFilter calls the controller when the snapshot is not ready yet")
+    void doFilter_CallsController_WhenSnapshotIsNotReady() throws Exception {
+        perform(get());
+
+        Assertions.assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("doFilter calls the controller for binary formats, streaming and other methods")
+    void doFilter_CallsController_WhenNotJsonListRequest() throws Exception {
+        animeCatalogSnapshot.rebuildNow();
+        MockHttpServletRequest smile = get();
+        smile.addHeader(HttpHeaders.ACCEPT, "application/x-jackson-smile");
+        MockHttpServletRequest stream = get();
+        stream.addParameter("stream", "true");
+
+        perform(smile);
+        perform(stream);
+        perform(new MockHttpServletRequest("POST", AnimeCatalogSnapshotFilter.PATH));
+        perform(new MockHttpServletRequest("GET", "/animes"));
+
+        Assertions.assertThat(controllerCalls).hasValue(4);
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", AnimeCatalogSnapshotFilter.PATH);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> controllerCalls.incrementAndGet());
+        return response;
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.gabriel.springboot2.filter;
+
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+class AnimePageCacheFilterTest {
+    // Grande o bastante para o gzip compensar
+    private static final String BODY = "{\"content\":[" + "{\"id\":1,\"name\":\"Hajime no Ippo\"},".repeat(20) + "{}]}";
+
+    private AnimeCollectionVersion animeCollectionVersion;
+    private AnimeProperties animeProperties;
+    private AnimePageCacheFilter filter;
+    private AtomicInteger controllerCalls;
+    private int status;
+    // Se o controller rodou com as leituras forçadas para o primário
+    private boolean primaryForced;
+
+    @BeforeEach
+    void setUp() {
+        AnimeRepository animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("21-21-0");
+        animeCollectionVersion = new AnimeCollectionVersion(animeRepositoryMock);
+        animeProperties = new AnimeProperties();
+        filter = new AnimePageCacheFilter(animeCollectionVersion, animeProperties, new SimpleMeterRegistry());
+        controllerCalls = new AtomicInteger();
+        status = HttpStatus.OK.value();
+    }
+
+    @Test
+    @DisplayName("doFilter serves the cached bytes without calling the controller when the page was already requested")
+    void doFilter_ServesCachedBytes_WhenPageWasAlreadyRequested() throws Exception {
+        MockHttpServletResponse first = perform(get("/animes?page=0&size=5"));
+        MockHttpServletResponse second = perform(get("/animes?page=0&size=5"));
+
+        Assertions.assertThat(controllerCalls).hasValue(1);
+        Assertions.assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo(BODY);
+        Assertions.assertThat(second.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        Assertions.assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(animeCollectionVersion.getETag());
+        Assertions.assertThat(second.getHeaderValues(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    @DisplayName("doFilter shares the cached page when the pageable parameters normalize to the same page")
+    void doFilter_SharesCachedPage_WhenParametersNormalizeToSamePage() throws Exception {
+        perform(get("/animes"));
+        perform(get("/animes?page=-1&size=abc"));
+        perform(get("/animes?page=0&size=5"));
+
+        Assertions.assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("doFilter calls the controller again when an anime changed after the page was cached")
+    void doFilter_CallsControllerAgain_WhenAnimeChanged() throws Exception {
+        perform(get("/animes"));
+
+        animeCollectionVersion.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+        perform(get("/animes"));
+        perform(get("/animes"));
+
+        Assertions.assertThat(controllerCalls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("doFilter reads the page from the primary when it is about to be cached")
+    void doFilter_ReadsPageFromPrimary_WhenPageIsAboutToBeCached() throws Exception {
+        perform(get("/animes"));
+
+        Assertions.assertThat(primaryForced).isTrue();
+        Assertions.assertThat(ReadWriteRoutingDataSource.isPrimaryForced()).isFalse();
+
+        perform(get("/animes?ids=1,2"));
+        Assertions.assertThat(primaryForced).isFalse();
+    }
+
+    @Test
+    @DisplayName("doFilter keeps one entry per page, sort and format when they differ")
+    void doFilter_KeepsOneEntryPerPageSortAndFormat_WhenTheyDiffer() throws Exception {
+        perform(get("/animes?page=1"));
+        perform(get("/animes?sort=name,desc"));
+        MockHttpServletRequest smile = get("/animes");
+        smile.addHeader(HttpHeaders.ACCEPT, "application/x-jackson-smile");
+        perform(smile);
+        perform(get("/animes"));
+
+        Assertions.assertThat(controllerCalls).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("doFilter serves the gzip variant when the client accepts gzip")
+    void doFilter_ServesGzipVariant_WhenClientAcceptsGzip() throws Exception {
+        perform(get("/animes"));
+        MockHttpServletRequest request = get("/animes");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip");
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        Assertions.assertThat(response.getContentLength()).isLessThan(BODY.length());
+        Assertions.assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("doFilter answers 304 from the cache when the client already has the current version")
+    void doFilter_Answers304FromCache_WhenClientHasCurrentVersion() throws Exception {
+        perform(get("/animes"));
+        MockHttpServletRequest request = get("/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCollectionVersion.getETag());
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        Assertions.assertThat(response.getContentLength()).isZero();
+        Assertions.assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("doFilter does not cache the response when it is not a pageable list or not successful")
+    void doFilter_DoesNotCache_WhenNotPageableListOrNotSuccessful() throws Exception {
+        perform(get("/animes?ids=1,2"));
+        perform(get("/animes?ids=1,2"));
+        perform(get("/animes?size=500"));
+        perform(get("/animes?size=500"));
+        status = HttpStatus.BAD_REQUEST.value();
+        perform(get("/animes?page=3"));
+        perform(get("/animes?page=3"));
+
+        Assertions.assertThat(controllerCalls).hasValue(6);
+    }
+
+    @Test
+    @DisplayName("doFilter ignores other paths and methods")
+    void doFilter_IgnoresOtherPathsAndMethods() throws Exception {
+        perform(get("/animes/all"));
+        perform(get("/animes/all"));
+        perform(new MockHttpServletRequest("POST", "/animes"));
+        perform(new MockHttpServletRequest("POST", "/animes"));
+
+        Assertions.assertThat(controllerCalls).hasValue(4);
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        String[] parts = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", parts[0]);
+        if (parts.length > 1) {
+            request.setQueryString(parts[1]);
+            for (String parameter : parts[1].split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return request;
+    }
+
+    // Faz o papel do AnimeCollectionETagInterceptor e do controller
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain controller = (servletRequest, servletResponse) -> {
+            controllerCalls.incrementAndGet();
+            primaryForced = ReadWriteRoutingDataSource.isPrimaryForced();
+            HttpServletResponse httpResponse = (HttpServletResponse) servletResponse;
+            httpResponse.setStatus(status);
+            httpResponse.setHeader(HttpHeaders.ETAG, animeCollectionVersion.getETag());
+            httpResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            httpResponse.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.gabriel.springboot2.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.gabriel.springboot2.exception.AnimeNotFoundException;
+import dev.gabriel.springboot2.util.DateUtil;
+import dev.gabriel.springboot2.util.MutableClock;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+class AnimeNotFoundResponseBodyTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private MutableClock clock;
+    private AnimeNotFoundResponseBody animeNotFoundResponseBody;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2022-01-15T10:30:45.100Z"));
+        animeNotFoundResponseBody = new AnimeNotFoundResponseBody(objectMapper, new DateUtil(clock));
+    }
+
+    @Test
+    @DisplayName("get returns the same body as the other bad request errors when successful")
+    void get_ReturnsBadRequestBody_WhenSuccessful() throws Exception {
+        JsonNode body = objectMapper.readTree(animeNotFoundResponseBody.get());
+
+        Assertions.assertThat(body.path("title").asText()).isEqualTo(RestExceptionHandler.BAD_REQUEST_TITLE);
+        Assertions.assertThat(body.path("status").asInt()).isEqualTo(400);
+        Assertions.assertThat(body.path("details").asText()).isEqualTo(AnimeNotFoundException.MESSAGE);
+        Assertions.assertThat(body.path("developerMessage").asText()).isEqualTo(AnimeNotFoundException.class.getName());
+        Assertions.assertThat(body.path("timestamp").asText()).isEqualTo("2022-01-15T10:30:45");
+    }
+
+    @Test
+    @DisplayName("get reuses the serialized body within the same second and refreshes it in the next one")
+    void get_ReusesBodyWithinTheSameSecond_AndRefreshesInTheNextOne() throws Exception {
+        byte[] first = animeNotFoundResponseBody.get();
+        clock.advance(Duration.ofMillis(500));
+        byte[] sameSecond = animeNotFoundResponseBody.get();
+        clock.advance(Duration.ofMillis(500));
+        byte[] nextSecond = animeNotFoundResponseBody.get();
+
+        Assertions.assertThat(sameSecond).isSameAs(first);
+        Assertions.assertThat(objectMapper.readTree(nextSecond).path("timestamp").asText()).isEqualTo("2022-01-15T10:30:46");
+    }
+
+    @Test
+    @DisplayName("AnimeNotFoundException has no stack trace")
+    void animeNotFoundException_HasNoStackTrace() {
+        Assertions.assertThat(new AnimeNotFoundException().getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package dev.gabriel.springboot2.index;
+
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.responses.AnimeSuggestion;
+import dev.gabriel.springboot2.service.AnimeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@ExtendWith(SpringExtension.class)
+class AnimeNameIndexTest {
+
+    @InjectMocks
+    private AnimeNameIndex animeNameIndex;
+
+    @Mock
+    private AnimeService animeServiceMock;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<Anime> action = invocation.getArgument(0);
+            action.accept(Anime.builder().id(1L).name("Naruto").build());
+            action.accept(Anime.builder().id(2L).name("Naruto Shippuden").build());
+            action.accept(Anime.builder().id(3L).name("Hajime no Ippo").build());
+            action.accept(Anime.builder().id(4L).name("Nanatsu no Taizai").build());
+            return null;
+        }).when(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeNameIndex.build();
+    }
+
+    @Test
+    @DisplayName("suggest returns animes starting with the prefix in name order when successful")
+    void suggest_ReturnsAnimesStartingWithPrefix_WhenSuccessful() {
+        List<AnimeSuggestion> suggestions = animeNameIndex.suggest("  NAR", 10);
+
+        Assertions.assertThat(suggestions)
+                .extracting(AnimeSuggestion::getId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("suggest respects the limit when there are more matches")
+    void suggest_RespectsLimit_WhenThereAreMoreMatches() {
+        Assertions.assertThat(animeNameIndex.suggest("na", 2))
+                .extracting(AnimeSuggestion::getName)
+                .containsExactly("Nanatsu no Taizai", "Naruto");
+    }
+
+    @Test
+    @DisplayName("suggest ignores accents when successful")
+    void suggest_IgnoresAccents_WhenSuccessful() {
+        animeNameIndex.onAnimeChanged(AnimeChangedEvent.created(Anime.builder().id(5L).name("Pokémon").build()));
+
+        Assertions.assertThat(animeNameIndex.suggest("poke", 10))
+                .extracting(AnimeSuggestion::getId)
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("onAnimeChanged keeps the index up to date on updates and deletes")
+    void onAnimeChanged_KeepsIndexUpToDate_WhenAnimesChange() {
+        animeNameIndex.onAnimeChanged(AnimeChangedEvent.updated(Anime.builder().id(1L).name("Boruto").build()));
+        animeNameIndex.onAnimeChanged(AnimeChangedEvent.deleted(2L));
+
+        Assertions.assertThat(animeNameIndex.suggest("nar", 10)).isEmpty();
+        Assertions.assertThat(animeNameIndex.suggest("bor", 10))
+                .extracting(AnimeSuggestion::getId)
+                .containsExactly(1L);
+        Assertions.assertThat(animeNameIndex.size()).isEqualTo(3);
+    }
+}
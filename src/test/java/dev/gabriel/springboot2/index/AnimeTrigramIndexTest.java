@@ -0,0 +1,84 @@
+package dev.gabriel.springboot2.index;
+
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.service.AnimeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.function.Consumer;
+
+@ExtendWith(SpringExtension.class)
+class AnimeTrigramIndexTest {
+
+    @InjectMocks
+    private AnimeTrigramIndex animeTrigramIndex;
+
+    @Mock
+    private AnimeService animeServiceMock;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<Anime> action = invocation.getArgument(0);
+            action.accept(Anime.builder().id(1L).name("Naruto").build());
+            action.accept(Anime.builder().id(2L).name("Samurai Champloo").build());
+            action.accept(Anime.builder().id(3L).name("Hajime no Ippo").build());
+            action.accept(Anime.builder().id(4L).name("Bleach").build());
+            return null;
+        }).when(animeServiceMock).streamAll(ArgumentMatchers.any());
+
+        animeTrigramIndex.build();
+    }
+
+    @Test
+    @DisplayName("search finds animes with misspelled names when successful")
+    void search_FindsAnimesWithMisspelledNames_WhenSuccessful() {
+        Assertions.assertThat(animeTrigramIndex.search("Naruot", 10)).containsExactly(1L);
+        Assertions.assertThat(animeTrigramIndex.search("Samurai Shamploo", 10)).containsExactly(2L);
+        Assertions.assertThat(animeTrigramIndex.search("hajime no ipo", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("search ranks the closest name first when more than one anime matches")
+    void search_RanksClosestNameFirst_WhenMoreThanOneAnimeMatches() {
+        animeTrigramIndex.onAnimeChanged(AnimeChangedEvent.created(Anime.builder().id(5L).name("Naruto Shippuden").build()));
+        animeTrigramIndex.onAnimeChanged(AnimeChangedEvent.created(Anime.builder().id(6L).name("Narutos").build()));
+
+        Assertions.assertThat(animeTrigramIndex.search("naruto", 10)).containsExactly(1L, 6L);
+    }
+
+    @Test
+    @DisplayName("search returns empty list when nothing is close enough")
+    void search_ReturnsEmptyList_WhenNothingIsCloseEnough() {
+        Assertions.assertThat(animeTrigramIndex.search("Overlord", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("onAnimeChanged keeps the index up to date on updates and deletes")
+    void onAnimeChanged_KeepsIndexUpToDate_WhenAnimesChange() {
+        animeTrigramIndex.onAnimeChanged(AnimeChangedEvent.updated(Anime.builder().id(1L).name("Overlord").build()));
+        animeTrigramIndex.onAnimeChanged(AnimeChangedEvent.deleted(3L));
+
+        Assertions.assertThat(animeTrigramIndex.search("naruto", 10)).isEmpty();
+        Assertions.assertThat(animeTrigramIndex.search("overlort", 10)).containsExactly(1L);
+        Assertions.assertThat(animeTrigramIndex.search("hajime no ippo", 10)).isEmpty();
+        Assertions.assertThat(animeTrigramIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("distance counts a swap of adjacent letters as a single edit")
+    void distance_CountsSwapAsSingleEdit() {
+        Assertions.assertThat(AnimeTrigramIndex.distance("naruot", "naruto", 2)).isEqualTo(1);
+        Assertions.assertThat(AnimeTrigramIndex.distance("kitten", "sitting", 3)).isEqualTo(3);
+        Assertions.assertThat(AnimeTrigramIndex.distance("abc", "xyzabc", 1)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.gabriel.springboot2.interceptor;
+
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AnimeCollectionETagInterceptorTest {
+    private AnimeRepository animeRepositoryMock;
+    private AnimeCollectionVersion animeCollectionVersion;
+    private AnimeCollectionETagInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("3-3-0");
+        animeCollectionVersion = new AnimeCollectionVersion(animeRepositoryMock);
+        interceptor = new AnimeCollectionETagInterceptor(animeCollectionVersion);
+    }
+
+    @Test
+    @DisplayName("preHandle lets the request through and sends the collection ETag when the client has no version")
+    void preHandle_SendsCollectionETag_WhenClientHasNoVersion() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/animes"), response, null);
+
+        Assertions.assertThat(proceed).isTrue();
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(animeCollectionVersion.getETag());
+        Assertions.assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("preHandle sends an ETag per format and varies by Accept when a binary format is accepted")
+    void preHandle_SendsETagPerFormat_WhenBinaryFormatIsAccepted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.ACCEPT, "application/x-jackson-smile");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCollectionVersion.getETag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // O ETag do JSON não vale para o Smile
+        Assertions.assertThat(proceed).isTrue();
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(animeCollectionVersion.getETag("-smile"));
+        Assertions.assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    @DisplayName("preHandle answers 304 when the client already has the current version")
+    void preHandle_Answers304_WhenClientHasCurrentVersion() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes/all");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCollectionVersion.getETag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        Assertions.assertThat(proceed).isFalse();
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    @DisplayName("preHandle lets the request through when an anime changed after the client version")
+    void preHandle_LetsRequestThrough_WhenAnimeChanged() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCollectionVersion.getETag());
+
+        BDDMockito.when(animeRepositoryMock.findCollectionFingerprint()).thenReturn("2-3-0");
+        animeCollectionVersion.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+
+        Assertions.assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    @DisplayName("preHandle ignores requests that are not reads")
+    void preHandle_IgnoresRequestsThatAreNotReads() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeCollectionVersion.getETag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Assertions.assertThat(interceptor.preHandle(request, response, null)).isTrue();
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+}
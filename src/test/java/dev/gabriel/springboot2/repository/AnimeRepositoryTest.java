@@ -1,6 +1,7 @@
 package dev.gabriel.springboot2.repository;
 
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.responses.AnimeView;
 import dev.gabriel.springboot2.util.AnimeCreator;
 import lombok.extern.log4j.Log4j2;
 import org.assertj.core.api.Assertions;
@@ -8,7 +9,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import javax.validation.ConstraintViolationException;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +28,8 @@ import java.util.Optional;
 class AnimeRepositoryTest {
     @Autowired
     private AnimeRepository animeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     @DisplayName("Save persists anime when Successful")
@@ -65,6 +76,25 @@ class AnimeRepositoryTest {
         Assertions.assertThat(animeOptional).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find By Id keeps the anime in the second level cache when Successful")
+    // Fora da transação do teste, o cache só recebe a entidade depois do commit
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findById_KeepsAnimeInSecondLevelCache_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+        Cache cache = this.entityManagerFactory.getCache();
+        cache.evictAll();
+
+        this.animeRepository.findById(animeSaved.getId());
+
+        Assertions.assertThat(cache.contains(Anime.class, animeSaved.getId())).isTrue();
+
+        this.animeRepository.delete(animeSaved);
+
+        // A remoção invalida a entrada do cache
+        Assertions.assertThat(this.animeRepository.findById(animeSaved.getId())).isEmpty();
+    }
+
     @Test
     @DisplayName("Find By Name returns anime when Successful")
     void findByName_ReturnsListOfAnime_WhenSuccessful() {
@@ -89,6 +119,77 @@ class AnimeRepositoryTest {
         Assertions.assertThat(animes).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find Views By Name returns the anime projection when Successful")
+    void findViewsByName_ReturnsAnimeViews_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+
+        List<AnimeView> animes = this.animeRepository.findViewsByName(animeSaved.getName());
+
+        Assertions.assertThat(animes)
+                .hasSize(1)
+                .first()
+                .usingRecursiveComparison()
+                // O banco pode guardar o updatedAt com menos casas decimais que o LocalDateTime
+                .ignoringFields("updatedAt")
+                .isEqualTo(animeSaved);
+    }
+
+    @Test
+    @DisplayName("Find All Views returns a sorted page of anime projections when Successful")
+    void findAllViews_ReturnsSortedPageOfAnimeViews_WhenSuccessful() {
+        Anime first = this.animeRepository.save(Anime.builder().name("Bleach").build());
+        Anime second = this.animeRepository.save(Anime.builder().name("Akira").build());
+
+        Page<AnimeView> page = this.animeRepository.findAllViews(PageRequest.of(0, 1, Sort.by("name")));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(page.getContent()).extracting(AnimeView::getId).containsExactly(second.getId());
+
+        Slice<AnimeView> slice = this.animeRepository.findSliceViews(PageRequest.of(1, 1, Sort.by("name")));
+
+        Assertions.assertThat(slice.hasNext()).isFalse();
+        Assertions.assertThat(slice.getContent()).extracting(AnimeView::getId).containsExactly(first.getId());
+    }
+
+    @Test
+    @DisplayName("Find Page After returns the animes after the given id in id order")
+    void findPageAfter_ReturnsAnimesAfterId_WhenSuccessful() {
+        Anime first = this.animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+        Anime second = this.animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+        Anime third = this.animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+
+        List<Anime> animes = this.animeRepository.findPageAfter(first.getId(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(animes).containsExactly(second);
+
+        animes = this.animeRepository.findPageAfter(second.getId(), PageRequest.of(0, 5));
+
+        Assertions.assertThat(animes).containsExactly(third);
+    }
+
+    @Test
+    @DisplayName("Find Collection Fingerprint changes on every create, update and delete")
+    void findCollectionFingerprint_Changes_WhenAnimesAreWritten() {
+        String empty = this.animeRepository.findCollectionFingerprint();
+
+        Anime anime = this.animeRepository.saveAndFlush(AnimeCreator.createdAnimeToBeSaved());
+        String created = this.animeRepository.findCollectionFingerprint();
+
+        anime.setName("Overlord");
+        this.animeRepository.saveAndFlush(anime);
+        String updated = this.animeRepository.findCollectionFingerprint();
+
+        this.animeRepository.delete(anime);
+        this.animeRepository.flush();
+        String deleted = this.animeRepository.findCollectionFingerprint();
+
+        Assertions.assertThat(empty).isEqualTo("0-0-0");
+        Assertions.assertThat(created).isEqualTo("1-" + anime.getId() + "-0");
+        Assertions.assertThat(updated).isEqualTo("1-" + anime.getId() + "-1");
+        Assertions.assertThat(deleted).isEqualTo(empty);
+    }
+
     @Test
     @DisplayName("Save throw ConstraintViolationException when name is empty")
     void save_ThrowConstraintViolationException_WhenNameIsEmpty() {
@@ -96,8 +197,9 @@ class AnimeRepositoryTest {
 
 //        Assertions.assertThatThrownBy(() -> this.animeRepository.save(anime))
 //                .isInstanceOf(ConstraintViolationException.class);
+        // Com o id vindo de sequence o INSERT (e a validação) só acontece no flush
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> this.animeRepository.save(anime))
+                .isThrownBy(() -> this.animeRepository.saveAndFlush(anime))
                 .withMessageContaining("The anime name cannot be empty");
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchItemResult;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Lotes gravados de verdade no H2: o erro só aparece no flush, quando os INSERTs chegam ao banco
+@DataJpaTest
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({AnimeBatchService.class, AnimeProperties.class})
+// Sem a transação do teste, cada lote confirma ou desfaz a sua
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Persistence tests for Anime Batch Service")
+class AnimeBatchServicePersistenceTest {
+    @Autowired
+    private AnimeBatchService animeBatchService;
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private AnimeProperties animeProperties;
+
+    @AfterEach
+    void tearDown() {
+        animeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("saveAll marks only the chunk as failed when the database rejects it at flush")
+    void saveAll_MarksChunkAsFailed_WhenFlushFails() {
+        animeProperties.getBatch().setChunkSize(2);
+        // Passa na validação mas não cabe na coluna name (varchar 255)
+        String tooLongName = "A".repeat(300);
+
+        AnimeBatchResponse response = animeBatchService.saveAll(List.of(
+                new AnimePostRequestBody("Overlord"),
+                new AnimePostRequestBody("Berserk"),
+                new AnimePostRequestBody(tooLongName),
+                new AnimePostRequestBody("Monster"),
+                new AnimePostRequestBody("Vinland Saga")));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(AnimeBatchItemResult::getStatus)
+                .containsExactly(AnimeBatchItemResult.Status.CREATED, AnimeBatchItemResult.Status.CREATED,
+                        AnimeBatchItemResult.Status.FAILED, AnimeBatchItemResult.Status.FAILED,
+                        AnimeBatchItemResult.Status.CREATED);
+        Assertions.assertThat(response.getItems().get(2).getMessage()).isNotBlank();
+        Assertions.assertThat(animeRepository.count()).isEqualTo(3);
+    }
+}
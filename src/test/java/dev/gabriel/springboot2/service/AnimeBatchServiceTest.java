@@ -0,0 +1,127 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePostRequestBody;
+import dev.gabriel.springboot2.responses.AnimeBatchItemResult;
+import dev.gabriel.springboot2.responses.AnimeBatchResponse;
+import dev.gabriel.springboot2.util.AnimePostRequestBodyCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@ExtendWith(SpringExtension.class)
+class AnimeBatchServiceTest {
+
+    @InjectMocks
+    private AnimeBatchService animeBatchService;
+
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    @Mock
+    private EntityManager entityManagerMock;
+
+    @Mock
+    private TransactionTemplate transactionTemplateMock;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @BeforeEach
+    void setUp() {
+        animeProperties.getBatch().setChunkSize(2);
+
+        // Executa o callback como se fosse dentro da transação
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplateMock).executeWithoutResult(ArgumentMatchers.any());
+
+        AtomicLong ids = new AtomicLong();
+        BDDMockito.when(animeRepositoryMock.saveAll(ArgumentMatchers.<List<Anime>>any()))
+                .thenAnswer(invocation -> {
+                    List<Anime> animes = invocation.getArgument(0);
+                    animes.forEach(anime -> anime.setId(ids.incrementAndGet()));
+                    return animes;
+                });
+    }
+
+    @Test
+    @DisplayName("saveAll saves valid animes in chunks and rejects invalid ones when successful")
+    void saveAll_SavesValidAnimesInChunksAndRejectsInvalidOnes_WhenSuccessful() {
+        List<AnimePostRequestBody> animes = new ArrayList<>(List.of(
+                AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody(),
+                new AnimePostRequestBody(""),
+                AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody(),
+                AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody()));
+
+        AnimeBatchResponse response = animeBatchService.saveAll(animes);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(3);
+        Assertions.assertThat(response.getRejected()).isEqualTo(1);
+        Assertions.assertThat(response.getItems())
+                .extracting(AnimeBatchItemResult::getStatus)
+                .containsExactly(AnimeBatchItemResult.Status.CREATED, AnimeBatchItemResult.Status.REJECTED,
+                        AnimeBatchItemResult.Status.CREATED, AnimeBatchItemResult.Status.CREATED);
+        Assertions.assertThat(response.getItems().get(1).getMessage()).isEqualTo("The anime name cannot be empty");
+
+        // 3 animes válidos com chunk de 2 = 2 lotes
+        BDDMockito.verify(animeRepositoryMock, BDDMockito.times(2)).saveAll(ArgumentMatchers.any());
+        BDDMockito.verify(animeRepositoryMock, BDDMockito.times(2)).flush();
+    }
+
+    @Test
+    @DisplayName("saveAll marks the whole chunk as failed when the database rejects it")
+    void saveAll_MarksChunkAsFailed_WhenDatabaseRejectsIt() {
+        BDDMockito.doThrow(new DataIntegrityViolationException("duplicated"))
+                .when(animeRepositoryMock).saveAll(ArgumentMatchers.<List<Anime>>any());
+
+        AnimeBatchResponse response = animeBatchService.saveAll(
+                List.of(AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody()));
+
+        Assertions.assertThat(response.getFailed()).isEqualTo(1);
+        Assertions.assertThat(response.getItems().get(0).getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("saveAll throws BadRequestException when the batch is too big")
+    void saveAll_ThrowsBadRequestException_WhenBatchIsTooBig() {
+        animeProperties.getBatch().setMaxSize(1);
+
+        List<AnimePostRequestBody> animes = Collections.nCopies(2, AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeBatchService.saveAll(animes));
+    }
+}
@@ -0,0 +1,150 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+class AnimeLookupBatcherTest {
+    private static final int CALLERS = 6;
+
+    private AnimeRepository animeRepositoryMock;
+    private Cache secondLevelCacheMock;
+    private AnimeProperties animeProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private AnimeLookupBatcher animeLookupBatcher;
+    private ExecutorService executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+        secondLevelCacheMock = Mockito.mock(Cache.class);
+        EntityManagerFactory entityManagerFactoryMock = Mockito.mock(EntityManagerFactory.class);
+        BDDMockito.when(entityManagerFactoryMock.getCache()).thenReturn(secondLevelCacheMock);
+        ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSourceMock = Mockito.mock(ObjectProvider.class);
+
+        // Os ids pares existem
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(anime(invocation.getArgument(0))));
+        BDDMockito.when(animeRepositoryMock.findAllById(ArgumentMatchers.anyIterable()))
+                .thenAnswer(invocation -> StreamSupport.stream(invocation.<Iterable<Long>>getArgument(0).spliterator(), false)
+                        .map(AnimeLookupBatcherTest::anime)
+                        .filter(anime -> anime != null)
+                        .collect(Collectors.toList()));
+
+        animeProperties = new AnimeProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepositoryMock, entityManagerFactoryMock, animeProperties,
+                readWriteRoutingDataSourceMock, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("findById queries directly by id when the load is low")
+    void findById_QueriesDirectly_WhenLoadIsLow() {
+        Assertions.assertThat(animeLookupBatcher.findById(2)).contains(anime(2L));
+        Assertions.assertThat(animeLookupBatcher.findById(3)).isEmpty();
+
+        Mockito.verify(animeRepositoryMock, Mockito.never()).findAllById(ArgumentMatchers.anyIterable());
+        Assertions.assertThat(count("direct")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("findById queries directly by id when the anime is in the second level cache")
+    void findById_QueriesDirectly_WhenAnimeIsInSecondLevelCache() {
+        animeProperties.getLookupBatch().setMinConcurrency(1);
+        BDDMockito.when(secondLevelCacheMock.contains(Anime.class, 2L)).thenReturn(true);
+
+        Assertions.assertThat(animeLookupBatcher.findById(2)).contains(anime(2L));
+
+        Mockito.verify(animeRepositoryMock, Mockito.never()).findAllById(ArgumentMatchers.anyIterable());
+        Assertions.assertThat(count("cached")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findById resolves concurrent lookups with a single IN query when the load is high")
+    @SuppressWarnings("unchecked")
+    void findById_ResolvesConcurrentLookupsWithSingleQuery_WhenLoadIsHigh() throws Exception {
+        animeProperties.getLookupBatch().setMinConcurrency(1);
+        animeProperties.getLookupBatch().setMaxSize(CALLERS);
+        // Só fecha quando enche, então todas as buscas caem no mesmo lote
+        animeProperties.getLookupBatch().setWindow(Duration.ofSeconds(5));
+
+        List<Future<Optional<Anime>>> results = new ArrayList<>();
+        for (long id = 1; id <= CALLERS; id++) {
+            long animeId = id;
+            results.add(executor.submit(() -> animeLookupBatcher.findById(animeId)));
+        }
+
+        for (int i = 0; i < CALLERS; i++) {
+            long id = i + 1;
+            Assertions.assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(Optional.ofNullable(anime(id)));
+        }
+        ArgumentCaptor<Iterable<Long>> ids = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(animeRepositoryMock, Mockito.times(1)).findAllById(ids.capture());
+        Assertions.assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L);
+        Mockito.verify(animeRepositoryMock, Mockito.never()).findById(ArgumentMatchers.anyLong());
+        Assertions.assertThat(meterRegistry.get(AnimeLookupBatcher.METRIC + ".batch.size").summary().max()).isEqualTo(CALLERS);
+    }
+
+    @Test
+    @DisplayName("findById queries a partial batch when the window ends before it fills")
+    void findById_QueriesPartialBatch_WhenWindowEnds() {
+        animeProperties.getLookupBatch().setMinConcurrency(1);
+        animeProperties.getLookupBatch().setWindow(Duration.ofMillis(10));
+
+        Assertions.assertThat(animeLookupBatcher.findById(4)).contains(anime(4L));
+
+        Mockito.verify(animeRepositoryMock).findAllById(ArgumentMatchers.anyIterable());
+        Assertions.assertThat(count("batched")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findById throws the query exception to every lookup of the batch when the query fails")
+    void findById_ThrowsQueryException_WhenBatchQueryFails() {
+        animeProperties.getLookupBatch().setMinConcurrency(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        BDDMockito.when(animeRepositoryMock.findAllById(ArgumentMatchers.anyIterable())).thenThrow(failure);
+
+        Assertions.assertThatThrownBy(() -> animeLookupBatcher.findById(2)).isSameAs(failure);
+    }
+
+    private double count(String path) {
+        return meterRegistry.get(AnimeLookupBatcher.METRIC).tag("path", path).counter().count();
+    }
+
+    private static Anime anime(long id) {
+        if (id % 2 != 0) return null;
+        return Anime.builder().id(id).name("Anime " + id).build();
+    }
+}
@@ -0,0 +1,127 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.cache.AnimeCollectionVersion;
+import dev.gabriel.springboot2.datasource.ReadWriteRoutingDataSource;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.util.AnimeCreator;
+import dev.gabriel.springboot2.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+class AnimeReadCoalescerTest {
+    private static final int CALLERS = 5;
+
+    @InjectMocks
+    private AnimeReadCoalescer animeReadCoalescer;
+
+    @Mock
+    private AnimeService animeServiceMock;
+
+    @Mock
+    private ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSourceMock;
+
+    @Spy
+    private AnimeCollectionVersion animeCollectionVersion = new AnimeCollectionVersion(Mockito.mock(AnimeRepository.class));
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("findByIdOrThrowBadRequestException queries once for concurrent requests of the same anime")
+    void findByIdOrThrowBadRequestException_QueriesOnce_WhenRequestsAreConcurrent() throws Exception {
+        BDDMockito.when(animeServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> blockUntilReleased(AnimeCreator.createdValidAnime()));
+
+        List<Future<Anime>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) results.add(executor.submit(() -> animeReadCoalescer.findByIdOrThrowBadRequestException(1)));
+        awaitCount("findById", "leader", 1);
+        awaitCount("findById", "follower", CALLERS - 1);
+        release.countDown();
+
+        for (Future<Anime> result : results) {
+            Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(AnimeCreator.createdValidAnime());
+        }
+        Mockito.verify(animeServiceMock, Mockito.times(1)).findByIdOrThrowBadRequestException(1);
+    }
+
+    @Test
+    @DisplayName("findByName queries again when an anime changed after the query in flight started")
+    void findByName_QueriesAgain_WhenAnimeChangedAfterQueryStarted() throws Exception {
+        BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> blockUntilReleased(List.of(AnimeCreator.createdValidAnimeView())));
+
+        Future<List<AnimeView>> beforeWrite = executor.submit(() -> animeReadCoalescer.findByName("Hajime no Ippo"));
+        awaitCount("findByName", "leader", 1);
+        animeCollectionVersion.onAnimeChanged(AnimeChangedEvent.deleted(1L));
+        Future<List<AnimeView>> afterWrite = executor.submit(() -> animeReadCoalescer.findByName("Hajime no Ippo"));
+        awaitCount("findByName", "leader", 2);
+        release.countDown();
+
+        beforeWrite.get(5, TimeUnit.SECONDS);
+        afterWrite.get(5, TimeUnit.SECONDS);
+        Mockito.verify(animeServiceMock, Mockito.times(2)).findByName("Hajime no Ippo");
+        Assertions.assertThat(count("findByName", "follower")).isZero();
+    }
+
+    @Test
+    @DisplayName("findByName queries directly when the user reads from the primary after a write")
+    void findByName_QueriesDirectly_WhenUserIsPinnedToPrimary() {
+        ReadWriteRoutingDataSource routingMock = Mockito.mock(ReadWriteRoutingDataSource.class);
+        BDDMockito.when(routingMock.isPinnedToPrimary()).thenReturn(true);
+        BDDMockito.when(readWriteRoutingDataSourceMock.getIfAvailable()).thenReturn(routingMock);
+        BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
+                .thenReturn(List.of(AnimeCreator.createdValidAnimeView()));
+
+        List<AnimeView> animes = animeReadCoalescer.findByName("Hajime no Ippo");
+
+        Assertions.assertThat(animes).containsExactly(AnimeCreator.createdValidAnimeView());
+        Assertions.assertThat(count("findByName", "leader")).isZero();
+    }
+
+    private <T> T blockUntilReleased(T value) throws InterruptedException {
+        release.await(5, TimeUnit.SECONDS);
+        return value;
+    }
+
+    private void awaitCount(String name, String role, int expected) throws InterruptedException {
+        for (int i = 0; i < 250 && count(name, role) < expected; i++) Thread.sleep(20);
+        Assertions.assertThat(count(name, role)).isEqualTo(expected);
+    }
+
+    private double count(String name, String role) {
+        return meterRegistry.get(SingleFlight.METRIC).tag("name", name).tag("role", role).counter().count();
+    }
+}
@@ -0,0 +1,139 @@
+package dev.gabriel.springboot2.service;
+
+import dev.gabriel.springboot2.cache.AnimeCountCache;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.exception.BadRequestException;
+import dev.gabriel.springboot2.repository.AnimeRepository;
+import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.responses.AnimeLookupResponse;
+import dev.gabriel.springboot2.util.AnimeCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+// Conta os comandos SQL que chegam no banco em cada escrita e nas buscas em lote do AnimeService
+// Sem a transação do teste: cada chamada tem a sua sessão, como as requisições, e o que uma grava no
+// cache de segundo nível a próxima consegue ler
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AnimeService.class, AnimeCountCache.class, AnimeProperties.class, AnimeLookupBatcher.class, SimpleMeterRegistry.class})
+@DisplayName("Query count tests for Anime Service writes and lookups")
+class AnimeServiceQueryCountTest {
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Cache secondLevelCache;
+    private Anime savedAnime;
+
+    @BeforeEach
+    void setUp() {
+        secondLevelCache = entityManagerFactory.getCache();
+        // Depois do commit o anime fica no cache de segundo nível, como um anime já lido antes
+        savedAnime = animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        animeRepository.deleteAllInBatch();
+        secondLevelCache.evictAll();
+    }
+
+    @Test
+    @DisplayName("replace runs a single statement when the anime is in the second level cache")
+    void replace_RunsSingleStatement_WhenAnimeIsCached() {
+        animeService.replace(new AnimePutRequestBody(savedAnime.getId(), "Overlord"));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Anime updatedAnime = animeRepository.findById(savedAnime.getId()).orElseThrow();
+        Assertions.assertThat(updatedAnime.getName()).isEqualTo("Overlord");
+        Assertions.assertThat(updatedAnime.getVersion()).isEqualTo(savedAnime.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("replace runs a select and an update when the anime is not in the second level cache")
+    void replace_RunsSelectAndUpdate_WhenAnimeIsNotCached() {
+        secondLevelCache.evict(Anime.class, savedAnime.getId());
+
+        animeService.replace(new AnimePutRequestBody(savedAnime.getId(), "Overlord"));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Assertions.assertThat(animeRepository.findById(savedAnime.getId()).orElseThrow().getName()).isEqualTo("Overlord");
+    }
+
+    @Test
+    @DisplayName("replace keeps the other animes in the second level cache")
+    void replace_KeepsOtherAnimesCached_WhenSuccessful() {
+        Anime other = animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+        Assertions.assertThat(secondLevelCache.contains(Anime.class, other.getId())).isTrue();
+
+        animeService.replace(new AnimePutRequestBody(savedAnime.getId(), "Overlord"));
+
+        Assertions.assertThat(secondLevelCache.contains(Anime.class, other.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("delete runs a single statement when the anime is in the second level cache")
+    void delete_RunsSingleStatement_WhenAnimeIsCached() {
+        animeService.delete(savedAnime.getId());
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(animeRepository.findById(savedAnime.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("delete runs a select and a delete when the anime is not in the second level cache")
+    void delete_RunsSelectAndDelete_WhenAnimeIsNotCached() {
+        secondLevelCache.evict(Anime.class, savedAnime.getId());
+
+        animeService.delete(savedAnime.getId());
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Assertions.assertThat(animeRepository.findById(savedAnime.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("delete runs a single statement when anime not found")
+    void delete_RunsSingleStatement_WhenAnimeNotFound() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.delete(savedAnime.getId() + 1));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("lookup runs a single statement when the ids fit in one chunk")
+    void lookup_RunsSingleStatement_WhenIdsFitInOneChunk() {
+        Anime other = animeRepository.save(AnimeCreator.createdAnimeToBeSaved());
+        statistics.clear();
+
+        AnimeLookupResponse response = animeService.lookup(List.of(other.getId(), savedAnime.getId() + 100, savedAnime.getId()));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(response.getContent()).extracting(Anime::getId).containsExactly(other.getId(), savedAnime.getId());
+        Assertions.assertThat(response.getMissing()).containsExactly(savedAnime.getId() + 100);
+    }
+}
@@ -1,11 +1,18 @@
 package dev.gabriel.springboot2.service;
 
+import dev.gabriel.springboot2.cache.AnimeCountCache;
+import dev.gabriel.springboot2.config.AnimeProperties;
 import dev.gabriel.springboot2.controller.AnimeController;
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.event.AnimeChangedEvent;
 import dev.gabriel.springboot2.exception.BadRequestException;
 import dev.gabriel.springboot2.repository.AnimeRepository;
 import dev.gabriel.springboot2.requests.AnimePostRequestBody;
 import dev.gabriel.springboot2.requests.AnimePutRequestBody;
+import dev.gabriel.springboot2.responses.AnimeCursorPage;
+import dev.gabriel.springboot2.responses.AnimeLookupResponse;
+import dev.gabriel.springboot2.responses.AnimeView;
+import dev.gabriel.springboot2.util.AnimeCursor;
 import dev.gabriel.springboot2.util.AnimeCreator;
 import dev.gabriel.springboot2.util.AnimePostRequestBodyCreator;
 import dev.gabriel.springboot2.util.AnimePutRequestBodyCreator;
@@ -18,17 +25,25 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManager;
 import javax.validation.ConstraintViolationException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 class AnimeServiceTest {
@@ -41,27 +56,54 @@ class AnimeServiceTest {
     @Mock
     private AnimeRepository animeRepositoryMock;
 
+    @Mock
+    private EntityManager entityManagerMock;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
+    @Mock
+    private AnimeCountCache animeCountCacheMock;
+
+    @Mock
+    private AnimeLookupBatcher animeLookupBatcherMock;
+
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
     @BeforeEach
     void setUp() {
-        PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createdValidAnime()));
+        PageImpl<AnimeView> animePage = new PageImpl<>(List.of(AnimeCreator.createdValidAnimeView()));
 
         // BDDMockito Cria compotamentos para os métodos do  animeService
-        BDDMockito.when(animeRepositoryMock.findAll(ArgumentMatchers.any(PageRequest.class)))
+        BDDMockito.when(animeRepositoryMock.findAllViews(ArgumentMatchers.any(PageRequest.class)))
                 .thenReturn(animePage);
 
+        BDDMockito.when(animeRepositoryMock.findSliceViews(ArgumentMatchers.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createdValidAnimeView())));
+
+        BDDMockito.when(animeCountCacheMock.get())
+                .thenReturn(1L);
+
         BDDMockito.when(animeRepositoryMock.findAll())
                 .thenReturn(List.of(AnimeCreator.createdValidAnime()));
 
-        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+        BDDMockito.when(animeLookupBatcherMock.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(AnimeCreator.createdValidAnime()));
 
-        BDDMockito.when(animeRepositoryMock.findByName(ArgumentMatchers.anyString()))
-                .thenReturn(List.of(AnimeCreator.createdValidAnime()));
+        BDDMockito.when(animeRepositoryMock.streamAll())
+                .thenAnswer(invocation -> Stream.of(AnimeCreator.createdValidAnime()));
+
+        BDDMockito.when(animeRepositoryMock.findViewsByName(ArgumentMatchers.anyString()))
+                .thenReturn(List.of(AnimeCreator.createdValidAnimeView()));
 
         BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
                 .thenReturn(AnimeCreator.createdValidAnime());
 
         BDDMockito.doNothing().when(animeRepositoryMock).delete(ArgumentMatchers.any(Anime.class));
+
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(AnimeCreator.createdValidAnime()));
     }
 
     @Test
@@ -69,7 +111,7 @@ class AnimeServiceTest {
     void listAll_ReturnsListOfAnimeInsidePageObject_WhenSuccessful() {
         String expectedName = AnimeCreator.createdValidAnime().getName();
 
-        Page<Anime> animePage = animeService.listAll(PageRequest.of(1,1));
+        Page<AnimeView> animePage = animeService.listAll(PageRequest.of(1,1));
 
         Assertions.assertThat(animePage).isNotNull();
 
@@ -80,6 +122,58 @@ class AnimeServiceTest {
         Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("listAllAsSlice returns slice of anime when successful")
+    void listAllAsSlice_ReturnsSliceOfAnime_WhenSuccessful() {
+        Slice<AnimeView> animeSlice = animeService.listAllAsSlice(PageRequest.of(0, 1));
+
+        Assertions.assertThat(animeSlice.getContent()).containsExactly(AnimeCreator.createdValidAnimeView());
+        Assertions.assertThat(animeSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("countApproximately returns the cached count when successful")
+    void countApproximately_ReturnsCachedCount_WhenSuccessful() {
+        Assertions.assertThat(animeService.countApproximately()).isEqualTo(1L);
+
+        BDDMockito.verify(animeRepositoryMock, BDDMockito.never()).count();
+    }
+
+    @Test
+    @DisplayName("listAfter returns page with next cursor when there are more animes")
+    void listAfter_ReturnsPageWithNextCursor_WhenThereAreMoreAnimes() {
+        Anime first = AnimeCreator.createdValidAnime();
+        Anime second = AnimeCreator.createdValidUpdatedAnime();
+        second.setId(2L);
+
+        BDDMockito.when(animeRepositoryMock.findPageAfter(ArgumentMatchers.eq(0L), ArgumentMatchers.any()))
+                .thenReturn(List.of(first, second));
+
+        AnimeCursorPage page = animeService.listAfter("", 1);
+
+        Assertions.assertThat(page.getContent()).containsExactly(first);
+        Assertions.assertThat(page.getNextCursor()).isEqualTo(AnimeCursor.encode(first.getId()));
+    }
+
+    @Test
+    @DisplayName("listAfter returns page without next cursor when it is the last page")
+    void listAfter_ReturnsPageWithoutNextCursor_WhenItIsTheLastPage() {
+        BDDMockito.when(animeRepositoryMock.findPageAfter(ArgumentMatchers.eq(1L), ArgumentMatchers.any()))
+                .thenReturn(List.of(AnimeCreator.createdValidAnime()));
+
+        AnimeCursorPage page = animeService.listAfter(AnimeCursor.encode(1L), 5);
+
+        Assertions.assertThat(page.getContent()).hasSize(1);
+        Assertions.assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("listAfter throws BadRequestException when cursor is invalid")
+    void listAfter_ThrowsBadRequestException_WhenCursorIsInvalid() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.listAfter("not-a-cursor", 5));
+    }
+
     @Test
     @DisplayName("listAllNonPageable returns list of anime when successful")
     void listAllNonPageable_ReturnsListOfAnime_WhenSuccessful() {
@@ -95,6 +189,87 @@ class AnimeServiceTest {
         Assertions.assertThat(animes.get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("streamAll passes every anime to the action and detaches it when successful")
+    void streamAll_PassesEveryAnimeAndDetachesIt_WhenSuccessful() {
+        List<Anime> animes = new ArrayList<>();
+
+        animeService.streamAll(animes::add);
+
+        Assertions.assertThat(animes)
+                .hasSize(1)
+                .containsExactly(AnimeCreator.createdValidAnime());
+
+        BDDMockito.verify(entityManagerMock).detach(AnimeCreator.createdValidAnime());
+    }
+
+    @Test
+    @DisplayName("findAllByIdInOrder returns animes in the order of the ids skipping missing ones")
+    void findAllByIdInOrder_ReturnsAnimesInIdOrder_WhenSuccessful() {
+        Anime first = AnimeCreator.createdValidAnime();
+        Anime second = AnimeCreator.createdValidUpdatedAnime();
+        second.setId(2L);
+
+        BDDMockito.when(animeRepositoryMock.findAllById(List.of(2L, 3L, 1L)))
+                .thenReturn(List.of(first, second));
+
+        Assertions.assertThat(animeService.findAllByIdInOrder(List.of(2L, 3L, 1L)))
+                .containsExactly(second, first);
+    }
+
+    @Test
+    @DisplayName("lookup returns animes in the order of the ids and the missing ids when successful")
+    void lookup_ReturnsAnimesInIdOrderAndMissingIds_WhenSuccessful() {
+        Anime first = AnimeCreator.createdValidAnime();
+        Anime second = AnimeCreator.createdValidUpdatedAnime();
+        second.setId(2L);
+
+        BDDMockito.when(animeRepositoryMock.findAllById(List.of(2L, 3L, 1L)))
+                .thenReturn(List.of(first, second));
+
+        AnimeLookupResponse response = animeService.lookup(List.of(2L, 3L, 1L, 2L));
+
+        Assertions.assertThat(response.getContent()).containsExactly(second, first);
+        Assertions.assertThat(response.getMissing()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("lookup queries the ids in chunks when there are more ids than the chunk size")
+    void lookup_QueriesIdsInChunks_WhenIdsExceedChunkSize() {
+        animeProperties.getLookup().setChunkSize(2);
+        Anime first = AnimeCreator.createdValidAnime();
+        Anime third = AnimeCreator.createdValidUpdatedAnime();
+        third.setId(3L);
+
+        BDDMockito.when(animeRepositoryMock.findAllById(List.of(3L, 2L)))
+                .thenReturn(List.of(third));
+        BDDMockito.when(animeRepositoryMock.findAllById(List.of(1L)))
+                .thenReturn(List.of(first));
+
+        AnimeLookupResponse response = animeService.lookup(List.of(3L, 2L, 1L));
+
+        Assertions.assertThat(response.getContent()).containsExactly(third, first);
+        Assertions.assertThat(response.getMissing()).containsExactly(2L);
+        BDDMockito.verify(animeRepositoryMock, Mockito.times(2)).findAllById(ArgumentMatchers.anyIterable());
+    }
+
+    @Test
+    @DisplayName("lookup throws BadRequestException when there are more ids than the maximum")
+    void lookup_ThrowsBadRequestException_WhenIdsExceedMaxSize() {
+        animeProperties.getLookup().setMaxSize(2);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.lookup(List.of(1L, 2L, 3L)))
+                .withMessageContaining("2");
+    }
+
+    @Test
+    @DisplayName("lookup throws BadRequestException when no id is informed")
+    void lookup_ThrowsBadRequestException_WhenIdsAreEmpty() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.lookup(Collections.emptyList()));
+    }
+
     @Test
     @DisplayName("findByIdOrThrowBadRequestException returns anime when successful")
     void findByIdOrThrowBadRequestException_ReturnsAnime_WhenSuccessful() {
@@ -116,7 +291,7 @@ class AnimeServiceTest {
         // Criar um comportamento Mockito para carregar um Anime quando acessar o método do service
         // Comparar um Anime carregado com o retorno do findByIdOrThrowBadRequestException mockito
 
-        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+        BDDMockito.when(animeLookupBatcherMock.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.empty());
 
         Assertions.assertThatExceptionOfType(BadRequestException.class)
@@ -130,7 +305,7 @@ class AnimeServiceTest {
         String expectedName = AnimeCreator.createdValidAnime().getName();
 
         // Aqui o valor passado não importa, pois o valor do findByName retornado está sendo criado a partir do mockito
-        List<Anime> animes = animeService.findByName("anime");
+        List<AnimeView> animes = animeService.findByName("anime");
 
         Assertions.assertThat(animes)
                 .isNotNull();
@@ -142,10 +317,10 @@ class AnimeServiceTest {
     @DisplayName("findByName returns an empty list when successful")
     void findByName_ReturnsEmptyList_WhenAnimeIsNotFound() {
         // Quando você coloca esse compotamento dentro do método, ele tem preferência ao declarado no @BeforeEach
-        BDDMockito.when(animeRepositoryMock.findByName(ArgumentMatchers.anyString()))
+        BDDMockito.when(animeRepositoryMock.findViewsByName(ArgumentMatchers.anyString()))
                 .thenReturn(Collections.emptyList());
 
-        List<Anime> animes = animeService.findByName("algum nome");
+        List<AnimeView> animes = animeService.findByName("algum nome");
 
         Assertions.assertThat(animes)
                 .isNotNull()
@@ -161,6 +336,15 @@ class AnimeServiceTest {
         Assertions.assertThat(animeSaved).isEqualTo(AnimeCreator.createdValidAnime());
     }
 
+    @Test
+    @DisplayName("save publishes a created event when successful")
+    void save_PublishesCreatedEvent_WhenSuccessful() {
+        animeService.save(AnimePostRequestBodyCreator.createdAnimeAnimePostRequestBody());
+
+        BDDMockito.verify(eventPublisherMock).publishEvent(ArgumentMatchers.<AnimeChangedEvent>argThat(event ->
+                event.getType() == AnimeChangedEvent.Type.CREATED && event.getAnimeId() == 1L));
+    }
+
     @Test
     @DisplayName("replace updates anime when successful")
     void replace_UpdatesAnime_WhenSuccessful() {
@@ -170,6 +354,18 @@ class AnimeServiceTest {
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    @DisplayName("replace throws BadRequestException when anime not found")
+    void replace_ThrowsBadRequestException_WhenAnimeNotFound() {
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.replace(AnimePutRequestBodyCreator.createdAnimeAnimePutRequestBody()));
+
+        BDDMockito.verifyNoInteractions(eventPublisherMock);
+    }
+
     @Test
     @DisplayName("delete removes anime when successful")
     void delete_RemovesAnime_WhenSuccessful() {
@@ -177,4 +373,16 @@ class AnimeServiceTest {
         Assertions.assertThatCode(() -> animeService.delete(1))
                 .doesNotThrowAnyException();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("delete throws BadRequestException when anime not found")
+    void delete_ThrowsBadRequestException_WhenAnimeNotFound() {
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.delete(1));
+
+        BDDMockito.verifyNoInteractions(eventPublisherMock);
+    }
+}
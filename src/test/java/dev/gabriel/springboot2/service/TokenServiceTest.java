@@ -0,0 +1,73 @@
+package dev.gabriel.springboot2.service;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import dev.gabriel.springboot2.config.AnimeProperties;
+import dev.gabriel.springboot2.responses.TokenResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+class TokenServiceTest {
+    private static final SecretKey KEY = key("0123456789abcdef0123456789abcdef");
+
+    private TokenService tokenService;
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        AnimeProperties animeProperties = new AnimeProperties();
+        animeProperties.getSecurity().getToken().setExpiresIn(Duration.ofMinutes(30));
+
+        tokenService = new TokenService(new NimbusJwtEncoder(new ImmutableSecret<>(KEY)), animeProperties);
+        jwtDecoder = NimbusJwtDecoder.withSecretKey(KEY).macAlgorithm(MacAlgorithm.HS256).build();
+    }
+
+    @Test
+    @DisplayName("issue returns a signed bearer token with the user name and roles when successful")
+    void issue_ReturnsSignedToken_WhenSuccessful() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("gabriel", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+        TokenResponse tokenResponse = tokenService.issue(authentication);
+
+        Assertions.assertThat(tokenResponse.getTokenType()).isEqualTo("Bearer");
+        Assertions.assertThat(tokenResponse.getExpiresIn()).isEqualTo(1800);
+
+        Jwt jwt = jwtDecoder.decode(tokenResponse.getAccessToken());
+        Assertions.assertThat(jwt.getSubject()).isEqualTo("gabriel");
+        Assertions.assertThat(jwt.getClaimAsStringList(TokenService.ROLES_CLAIM)).containsExactly("USER", "ADMIN");
+        Assertions.assertThat(Duration.between(jwt.getIssuedAt(), jwt.getExpiresAt())).isEqualTo(Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("issue returns a token that is rejected when verified with another key")
+    void issue_ReturnsTokenRejected_WhenVerifiedWithAnotherKey() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("devdojo", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        String token = tokenService.issue(authentication).getAccessToken();
+
+        JwtDecoder otherDecoder = NimbusJwtDecoder.withSecretKey(key("fedcba9876543210fedcba9876543210"))
+                .macAlgorithm(MacAlgorithm.HS256).build();
+
+        Assertions.assertThatExceptionOfType(JwtException.class)
+                .isThrownBy(() -> otherDecoder.decode(token));
+    }
+
+    private static SecretKey key(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+}
@@ -1,6 +1,7 @@
 package dev.gabriel.springboot2.util;
 
 import dev.gabriel.springboot2.domain.Anime;
+import dev.gabriel.springboot2.responses.AnimeView;
 
 public class AnimeCreator {
 
@@ -23,4 +24,11 @@ public class AnimeCreator {
                 .id(1L)
                 .build();
     }
+
+    public static AnimeView createdValidAnimeView () {
+        return AnimeView.builder()
+                .name("Hajime no Ippo")
+                .id(1L)
+                .build();
+    }
 }
@@ -0,0 +1,74 @@
+package dev.gabriel.springboot2.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+class DateUtilTest {
+    private static final Instant START = Instant.parse("2022-01-15T10:30:45.100Z");
+
+    private MutableClock clock;
+    private DateUtil dateUtil;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        dateUtil = new DateUtil(clock);
+    }
+
+    @Test
+    @DisplayName("formatLocalDateTimeToDatabaseStyle returns the date in database style when successful")
+    void formatLocalDateTimeToDatabaseStyle_ReturnsDatabaseStyle_WhenSuccessful() {
+        String formatted = dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2022, 1, 15, 10, 30, 45, 999));
+
+        Assertions.assertThat(formatted).isEqualTo("2022-01-15 10:30:45");
+    }
+
+    @Test
+    @DisplayName("formatLocalDateTimeToDatabaseStyle reuses the formatted string when called within the same second")
+    void formatLocalDateTimeToDatabaseStyle_ReusesString_WhenCalledWithinTheSameSecond() {
+        String first = dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2022, 1, 15, 10, 30, 45, 1));
+        String second = dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2022, 1, 15, 10, 30, 45, 500));
+        String next = dateUtil.formatLocalDateTimeToDatabaseStyle(LocalDateTime.of(2022, 1, 15, 10, 30, 46));
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(next).isEqualTo("2022-01-15 10:30:46");
+    }
+
+    @Test
+    @DisplayName("currentSecond returns the clock time without fractions and refreshes when the second changes")
+    void currentSecond_ReturnsClockTimeAndRefreshes_WhenTheSecondChanges() {
+        LocalDateTime first = dateUtil.currentSecond();
+        clock.advance(Duration.ofMillis(800));
+        LocalDateTime sameSecond = dateUtil.currentSecond();
+        clock.advance(Duration.ofMillis(200));
+        LocalDateTime nextSecond = dateUtil.currentSecond();
+
+        Assertions.assertThat(first).isEqualTo(LocalDateTime.of(2022, 1, 15, 10, 30, 45));
+        Assertions.assertThat(sameSecond).isSameAs(first);
+        Assertions.assertThat(nextSecond).isEqualTo(LocalDateTime.of(2022, 1, 15, 10, 30, 46));
+        Assertions.assertThat(dateUtil.currentSecondInDatabaseStyle()).isEqualTo("2022-01-15 10:30:46");
+    }
+
+    @Test
+    @DisplayName("currentSecond uses the clock zone and follows the shared instant when the clock has another zone")
+    void currentSecond_UsesClockZone_WhenClockHasAnotherZone() {
+        DateUtil saoPaulo = new DateUtil(clock.withZone(ZoneId.of("America/Sao_Paulo")));
+
+        Assertions.assertThat(saoPaulo.currentSecond()).isEqualTo(LocalDateTime.of(2022, 1, 15, 7, 30, 45));
+        clock.advance(Duration.ofSeconds(1));
+        Assertions.assertThat(saoPaulo.currentSecond()).isEqualTo(LocalDateTime.of(2022, 1, 15, 7, 30, 46));
+    }
+
+    @Test
+    @DisplayName("now returns the time of the injected clock")
+    void now_ReturnsTimeOfInjectedClock() {
+        Assertions.assertThat(dateUtil.now()).isEqualTo(LocalDateTime.of(2022, 1, 15, 10, 30, 45, 100_000_000));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.gabriel.springboot2.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, Object> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("execute shares one call and its result between concurrent callers with the same key")
+    void execute_SharesOneCall_WhenConcurrentCallersUseSameKey() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> results = callConcurrently("1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return new Object();
+        });
+        awaitFollowers(CALLERS - 1);
+        release.countDown();
+
+        Object first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> result : results) Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        Assertions.assertThat(calls).hasValue(1);
+        Assertions.assertThat(count("leader")).isEqualTo(1);
+        Assertions.assertThat(count("follower")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    @DisplayName("execute shares the exception between concurrent callers when the call fails")
+    void execute_SharesException_WhenCallFails() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        List<Future<Object>> results = callConcurrently("1", () -> {
+            await(release);
+            throw failure;
+        });
+        awaitFollowers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            Assertions.assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+    }
+
+    @Test
+    @DisplayName("execute calls again when the previous call with the same key already finished")
+    void execute_CallsAgain_WhenPreviousCallFinished() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("1", calls::incrementAndGet);
+        singleFlight.execute("1", calls::incrementAndGet);
+        Assertions.assertThatThrownBy(() -> singleFlight.execute("1", () -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        singleFlight.execute("1", calls::incrementAndGet);
+
+        Assertions.assertThat(calls).hasValue(3);
+        Assertions.assertThat(count("follower")).isZero();
+    }
+
+    @Test
+    @DisplayName("execute does not share calls between different keys")
+    void execute_DoesNotShareCalls_WhenKeysDiffer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Object> loader = () -> {
+            calls.incrementAndGet();
+            await(release);
+            return new Object();
+        };
+
+        Future<Object> first = executor.submit(() -> singleFlight.execute("1", loader));
+        Future<Object> second = executor.submit(() -> singleFlight.execute("2", loader));
+        for (int i = 0; i < 250 && calls.get() < 2; i++) Thread.sleep(20);
+        release.countDown();
+
+        Assertions.assertThat(first.get(5, TimeUnit.SECONDS)).isNotSameAs(second.get(5, TimeUnit.SECONDS));
+        Assertions.assertThat(calls).hasValue(2);
+    }
+
+    private List<Future<Object>> callConcurrently(String key, Supplier<Object> loader) throws InterruptedException {
+        List<Future<Object>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute(key, loader)));
+        // O primeiro precisa estar em andamento antes dos outros chegarem
+        for (int i = 0; i < 250 && count("leader") == 0; i++) Thread.sleep(20);
+        for (int i = 1; i < CALLERS; i++) results.add(executor.submit(() -> singleFlight.execute(key, loader)));
+        return results;
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        for (int i = 0; i < 250 && count("follower") < followers; i++) Thread.sleep(20);
+    }
+
+    private double count(String role) {
+        return meterRegistry.get(SingleFlight.METRIC).tag("name", "test").tag("role", role).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}